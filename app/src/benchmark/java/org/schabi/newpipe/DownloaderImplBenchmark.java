@@ -0,0 +1,51 @@
+package org.schabi.newpipe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.schabi.newpipe.error.ReCaptchaActivity;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * {@link DownloaderImpl#getCookies(String)}, which builds the Cookie header of every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DownloaderImplBenchmark {
+    private DownloaderImpl downloader;
+
+    @Setup
+    public void setUp() {
+        downloader = DownloaderImpl.init(new OkHttpClient.Builder());
+        downloader.setCookie(DownloaderImpl.YOUTUBE_RESTRICTED_MODE_COOKIE_KEY,
+                DownloaderImpl.YOUTUBE_RESTRICTED_MODE_COOKIE);
+        // a solved challenge sets a handful of cookies, one of them also set by restricted mode
+        downloader.setCookie(ReCaptchaActivity.RECAPTCHA_COOKIES_KEY,
+                "GOOGLE_ABUSE_EXEMPTION=ID=0123456789abcdef:TM=1700000000:C=r:IP=192.0.2.1-:S=abc;"
+                        + " PREF=f2=8000000; CONSENT=YES+cb; SOCS=CAESEwgDEgk0ODE3Nzk3MjQaAmVuIAEaBgiA");
+    }
+
+    @Benchmark
+    public String youtubeUrl() {
+        return downloader.getCookies("https://www.youtube.com/youtubei/v1/next?prettyPrint=false");
+    }
+
+    @Benchmark
+    public String otherUrl() {
+        return downloader.getCookies("https://i.ytimg.com/vi/dQw4w9WgXcQ/hqdefault.jpg");
+    }
+}
@@ -0,0 +1,38 @@
+package org.schabi.newpipe.error;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ReCaptchaActivity#sanitizeRecaptchaUrl(String)}, with and without a parameter to remove.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReCaptchaActivityBenchmark {
+    // fields and not constants, so that the JIT can not fold the calls away
+    private String plainUrl = "https://www.youtube.com/watch?v=dQw4w9WgXcQ&list=PL0123456789";
+    private String jsonUrl = "https://www.youtube.com/watch?v=dQw4w9WgXcQ&pbj=1&list=PL0123456789";
+
+    @Benchmark
+    public String withoutParameter() {
+        return ReCaptchaActivity.sanitizeRecaptchaUrl(plainUrl);
+    }
+
+    @Benchmark
+    public String withParameter() {
+        return ReCaptchaActivity.sanitizeRecaptchaUrl(jsonUrl);
+    }
+}
@@ -0,0 +1,76 @@
+package org.schabi.newpipe.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.schabi.newpipe.extractor.Info;
+import org.schabi.newpipe.extractor.ServiceList;
+import org.schabi.newpipe.extractor.stream.StreamInfo;
+import org.schabi.newpipe.extractor.stream.StreamType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and insertions in {@link InfoCache}, including the url normalization done for keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InfoCacheBenchmark {
+    private static final int ENTRIES = 50;
+    private static final int SERVICE_ID = ServiceList.YouTube.getServiceId();
+
+    private final InfoCache cache = InfoCache.getInstance();
+    private final String[] cachedUrls = new String[ENTRIES];
+    private final String[] missingUrls = new String[ENTRIES];
+    private final StreamInfo[] infos = new StreamInfo[ENTRIES];
+    private int next = 0;
+
+    private static String videoUrl(final String prefix, final int index) {
+        // YouTube video ids are 11 characters long
+        return "https://www.youtube.com/watch?v=" + String.format("%s%010d", prefix, index);
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        cache.clearCache();
+        for (int i = 0; i < ENTRIES; ++i) {
+            cachedUrls[i] = videoUrl("a", i);
+            missingUrls[i] = videoUrl("b", i);
+            infos[i] = new StreamInfo(SERVICE_ID, cachedUrls[i], cachedUrls[i],
+                    StreamType.VIDEO_STREAM, cachedUrls[i].substring(32), "Video " + i, 0);
+            cache.putInfo(SERVICE_ID, cachedUrls[i], infos[i], InfoCache.Type.STREAM);
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % ENTRIES;
+        return next;
+    }
+
+    @Benchmark
+    public Info getHit() {
+        return cache.getFromKey(SERVICE_ID, cachedUrls[nextIndex()], InfoCache.Type.STREAM);
+    }
+
+    @Benchmark
+    public Info getMiss() {
+        return cache.getFromKey(SERVICE_ID, missingUrls[nextIndex()], InfoCache.Type.STREAM);
+    }
+
+    @Benchmark
+    public void put() {
+        final int index = nextIndex();
+        cache.putInfo(SERVICE_ID, cachedUrls[index], infos[index], InfoCache.Type.STREAM);
+    }
+}
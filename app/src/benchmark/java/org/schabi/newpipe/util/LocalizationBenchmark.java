@@ -0,0 +1,93 @@
+package org.schabi.newpipe.util;
+
+import org.ocpsoft.prettytime.PrettyTime;
+import org.ocpsoft.prettytime.units.Decade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.NumberFormat;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The formatting done by {@link Localization} for every bound list item, next to what it did
+ * before formatters were cached (a new {@link NumberFormat} per call and
+ * {@link PrettyTime#formatUnrounded(Date)}), so that the two can be compared.
+ * <br>
+ * Only the pure Java parts are measured: plurals and {@code android.icu} formatters need a
+ * device.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalizationBenchmark {
+    private static final int ITEMS = 64;
+
+    private final long[] viewCounts = new long[ITEMS];
+    private final OffsetDateTime[] uploadDates = new OffsetDateTime[ITEMS];
+    private PrettyTime prettyTime;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        Localization.clearFormatterCache();
+        prettyTime = new PrettyTime(Locale.ENGLISH);
+        prettyTime.removeUnit(Decade.class);
+        Localization.initPrettyTime(new PrettyTime(Locale.ENGLISH));
+
+        // spread over the range of a typical feed: from a few views and minutes to millions of
+        // views and years
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < ITEMS; ++i) {
+            viewCounts[i] = (long) Math.pow(10, i % 10) + i;
+            uploadDates[i] = OffsetDateTime.ofInstant(
+                    Instant.ofEpochMilli(now - (long) Math.pow(3.3, i % 24) * 1000),
+                    ZoneOffset.UTC);
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % ITEMS;
+        return next;
+    }
+
+    @Benchmark
+    public String localizeNumber() {
+        return Localization.localizeNumber(viewCounts[nextIndex()]);
+    }
+
+    @Benchmark
+    public String localizeNumberUncached() {
+        return NumberFormat.getInstance(Locale.ENGLISH).format(viewCounts[nextIndex()]);
+    }
+
+    @Benchmark
+    public String formatDate() {
+        return Localization.formatDate(uploadDates[nextIndex()]);
+    }
+
+    @Benchmark
+    public String relativeTime() {
+        return Localization.relativeTime(uploadDates[nextIndex()]);
+    }
+
+    @Benchmark
+    public String relativeTimePrettyTime() {
+        return prettyTime.formatUnrounded(Date.from(uploadDates[nextIndex()].toInstant()));
+    }
+}
@@ -0,0 +1,108 @@
+package org.schabi.newpipe.util;
+
+import android.content.ContextWrapper;
+
+import androidx.annotation.NonNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving state with {@link StateSaver}, both to disk (serialization) and in memory (configuration
+ * changes), with a state roughly the size of a list screen's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateSaverBenchmark {
+    private static final String SUFFIX = ".benchmark";
+
+    private File cacheDir;
+    private File stateDir;
+    private long nextPrefix = 0;
+    private final SavedState inMemoryState = new SavedState("in_memory", "");
+
+    private final StateSaver.WriteRead writeRead = new StateSaver.WriteRead() {
+        private final List<String> urls = new ArrayList<>();
+
+        {
+            for (int i = 0; i < 100; ++i) {
+                urls.add("https://www.youtube.com/watch?v=" + String.format("%011d", i));
+            }
+        }
+
+        @Override
+        public String generateSuffix() {
+            return SUFFIX;
+        }
+
+        @Override
+        public void writeTo(final Queue<Object> objectsToSave) {
+            objectsToSave.add(new ArrayList<>(urls));
+            objectsToSave.add("search query");
+            objectsToSave.add(42);
+        }
+
+        @Override
+        public void readFrom(@NonNull final Queue<Object> savedObjects) {
+            // not benchmarked
+        }
+    };
+
+    @Setup
+    public void setUp() throws IOException {
+        cacheDir = Files.createTempDirectory("state_saver_benchmark").toFile();
+        stateDir = new File(cacheDir, "state_cache");
+        StateSaver.init(new ContextWrapper(null) {
+            @Override
+            public File getExternalCacheDir() {
+                return cacheDir;
+            }
+
+            @Override
+            public File getCacheDir() {
+                return cacheDir;
+            }
+        });
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearStates() {
+        StateSaver.clearStateFiles();
+        StateSaver.clearStateObjectsHolder();
+    }
+
+    @Benchmark
+    public void saveToDisk() {
+        // a new prefix every time, as StateSaver does not write a file it already wrote
+        final String prefix = Long.toString(nextPrefix++);
+        StateSaver.tryToSave(false, new SavedState(prefix, ""), null, writeRead);
+        new File(stateDir, prefix + SUFFIX).delete();
+    }
+
+    @Benchmark
+    public void saveInMemory() {
+        StateSaver.tryToSave(true, inMemoryState, null, writeRead);
+    }
+}
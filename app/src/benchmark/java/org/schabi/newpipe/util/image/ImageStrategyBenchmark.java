@@ -0,0 +1,61 @@
+package org.schabi.newpipe.util.image;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.schabi.newpipe.extractor.Image;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ImageStrategy#choosePreferredImage(List)}, which runs for every thumbnail shown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageStrategyBenchmark {
+    @Param({"MEDIUM", "HIGH"})
+    public PreferredImageQuality quality;
+
+    private final List<Image> youtubeThumbnails = new ArrayList<>();
+    private final List<Image> unknownSizes = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        ImageStrategy.setPreferredImageQuality(quality);
+
+        // the thumbnails YouTube returns for a video, from the smallest to the biggest
+        final int[][] sizes = {{90, 120}, {180, 320}, {360, 480}, {480, 640}, {720, 1280}};
+        for (final int[] size : sizes) {
+            youtubeThumbnails.add(new Image("https://i.ytimg.com/vi/id/" + size[0] + ".jpg",
+                    size[0], size[1], Image.ResolutionLevel.fromHeight(size[0])));
+        }
+        for (final Image.ResolutionLevel level : Image.ResolutionLevel.values()) {
+            unknownSizes.add(new Image("https://i.ytimg.com/vi/id/" + level + ".jpg",
+                    Image.HEIGHT_UNKNOWN, Image.WIDTH_UNKNOWN, level));
+        }
+    }
+
+    @Benchmark
+    public String knownSizes() {
+        return ImageStrategy.choosePreferredImage(youtubeThumbnails);
+    }
+
+    @Benchmark
+    public String unknownSizes() {
+        return ImageStrategy.choosePreferredImage(unknownSizes);
+    }
+}
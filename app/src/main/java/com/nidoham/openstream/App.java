@@ -4,17 +4,29 @@ import android.app.Application;
 import android.app.NotificationChannel;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.res.Configuration;
 import android.util.Log;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.jakewharton.processphoenix.ProcessPhoenix;
+import com.nidoham.openstream.adapters.InfoItemListAdapter;
+import com.nidoham.openstream.memory.MemoryPressureCoordinator;
+import com.nidoham.openstream.memory.MemoryPressureCoordinator.Pressure;
+import com.nidoham.openstream.startup.StartupGraph;
+import com.nidoham.openstream.startup.StartupTrace;
 
 import org.acra.ACRA;
 import org.acra.config.CoreConfigurationBuilder;
-import org.schabi.newpipe.extractor.NewPipe;
+import org.schabi.newpipe.error.ReCaptchaLauncher;
 import org.schabi.newpipe.util.BridgeStateSaverInitializer;
+import org.schabi.newpipe.util.ExtractorBootstrap;
+import org.schabi.newpipe.util.InfoCache;
+import org.schabi.newpipe.util.Localization;
 import org.schabi.newpipe.util.StateSaver;
 import org.schabi.newpipe.util.ServiceHelper;
 import org.schabi.newpipe.util.image.ImageStrategy;
@@ -26,6 +38,8 @@ import java.io.InterruptedIOException;
 import java.net.SocketException;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import io.reactivex.rxjava3.exceptions.CompositeException;
 import io.reactivex.rxjava3.exceptions.MissingBackpressureException;
@@ -36,8 +50,13 @@ import io.reactivex.rxjava3.plugins.RxJavaPlugins;
 
 public class App extends Application {
     private static final String TAG = App.class.toString();
+    private static final int STARTUP_THREADS = 3;
     private static App app;
-    private boolean isFirstRun = false;
+    private volatile boolean isFirstRun = false;
+    private final StartupTrace startupTrace = new StartupTrace();
+    private StartupGraph startupGraph;
+    @Nullable
+    private RecyclerView.RecycledViewPool sharedViewPool;
 
     @NonNull
     public static App getApp() { return app; }
@@ -45,6 +64,7 @@ public class App extends Application {
     @Override
     protected void attachBaseContext(final Context base) {
         super.attachBaseContext(base);
+        // not part of the startup graph, so that crashes during startup are reported too
         initACRA();
     }
 
@@ -58,31 +78,106 @@ public class App extends Application {
             return;
         }
 
-        final int lastUsedPrefVersion = PreferenceManager.getDefaultSharedPreferences(this)
-                .getInt(getString(R.string.last_used_preferences_version), -1);
-        isFirstRun = lastUsedPrefVersion == -1;
+        configureRxJavaErrorHandler();
+        registerComponentCallbacks(createMemoryPressureCoordinator());
 
         // Removed NewPipeSettings init
+        // Removed PoTokenProviderImpl usage
 
-        NewPipe.init(null, null, null); // downloader/localization can be added if needed
+        final ExecutorService startupExecutor = Executors.newFixedThreadPool(STARTUP_THREADS);
+        startupGraph = new StartupGraph(startupTrace)
+                // Bridge registers activity lifecycle callbacks, so it has to be ready before the
+                // first activity is created
+                .add("bridge_state_saver", StartupGraph.Mode.MAIN_THREAD,
+                        () -> BridgeStateSaverInitializer.init(this))
+                // same for the callbacks tracking the activity reCAPTCHA challenges are opened from
+                .add("recaptcha_launcher", StartupGraph.Mode.MAIN_THREAD,
+                        () -> ReCaptchaLauncher.init(this))
+                // list items load their thumbnails through Picasso as soon as they are bound
+                .add("image_loading", StartupGraph.Mode.MAIN_THREAD,
+                        () -> PicassoHelper.init(this))
+                .add("preferences", StartupGraph.Mode.BACKGROUND, this::readPreferences)
+                .add("extractor", StartupGraph.Mode.BACKGROUND,
+                        () -> ExtractorBootstrap.init(this))
+                .add("state_saver", StartupGraph.Mode.BACKGROUND, () -> StateSaver.init(this))
+                .add("services", StartupGraph.Mode.BACKGROUND,
+                        () -> ServiceHelper.initServices(this), "extractor")
+                // until this is done, images are loaded with the default quality
+                .add("image_preferences", StartupGraph.Mode.BACKGROUND,
+                        this::readImagePreferences, "preferences", "image_loading")
+                .add("notification_channels", StartupGraph.Mode.DEFERRED,
+                        this::initNotificationChannels);
+        startupGraph.start(startupExecutor)
+                .whenComplete((result, throwable) -> startupExecutor.shutdown());
+    }
 
-        BridgeStateSaverInitializer.init(this);
-        StateSaver.init(this);
-        initNotificationChannels();
+    /**
+     * @return the pool shared by the lists of all activities (see
+     *         {@link InfoItemListAdapter#createSharedViewPool()}), so that e.g. search results
+     *         reuse the views inflated for the tabs; activities using it have to
+     *         {@link RecyclerView.RecycledViewPool#clear() clear} it when they are destroyed,
+     *         as pooled views keep the context they were inflated with
+     */
+    @MainThread
+    @NonNull
+    public RecyclerView.RecycledViewPool getSharedViewPool() {
+        if (sharedViewPool == null) {
+            sharedViewPool = InfoItemListAdapter.createSharedViewPool();
+        }
+        return sharedViewPool;
+    }
 
-        ServiceHelper.initServices(this);
+    /**
+     * @return the timings of the startup steps, which are also logged once all steps completed
+     */
+    @NonNull
+    public StartupTrace getStartupTrace() {
+        return startupTrace;
+    }
 
+    @NonNull
+    private static MemoryPressureCoordinator createMemoryPressureCoordinator() {
+        return new MemoryPressureCoordinator()
+                .register("InfoCache", "entries", (pressure, inBackground) -> {
+                    final InfoCache cache = InfoCache.getInstance();
+                    final long sizeBefore = cache.getSize();
+                    if (pressure == Pressure.CRITICAL) {
+                        cache.clearCache();
+                    } else {
+                        cache.trimCache();
+                    }
+                    return sizeBefore - cache.getSize();
+                })
+                // bitmaps are in the disk cache too, so they are cheap to load again
+                .register("Picasso", "bytes", (pressure, inBackground) ->
+                        pressure == Pressure.MODERATE ? 0 : PicassoHelper.clearMemoryCache())
+                // only needed across configuration changes, which are unlikely once the app is in
+                // the background, but not on RUNNING_CRITICAL: a rotation may well follow it
+                .register("StateSaver", "states", (pressure, inBackground) ->
+                        inBackground && pressure == Pressure.CRITICAL
+                                ? StateSaver.clearStateObjectsHolder() : 0);
+    }
+
+    private void readPreferences() {
+        final int lastUsedPrefVersion = PreferenceManager.getDefaultSharedPreferences(this)
+                .getInt(getString(R.string.last_used_preferences_version), -1);
+        isFirstRun = lastUsedPrefVersion == -1;
+    }
+
+    private void readImagePreferences() {
         final SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(this);
-        PicassoHelper.init(this);
         ImageStrategy.setPreferredImageQuality(PreferredImageQuality.fromPreferenceKey(this,
                 prefs.getString(getString(R.string.image_quality_key),
                         getString(R.string.image_quality_default))));
         PicassoHelper.setIndicatorsEnabled(BuildConfig.DEBUG
                 && prefs.getBoolean(getString(R.string.show_image_indicators_key), false));
+    }
 
-        configureRxJavaErrorHandler();
-
-        // Removed PoTokenProviderImpl usage
+    @Override
+    public void onConfigurationChanged(@NonNull final Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // the system locale might have changed, so formatters need to be recreated
+        Localization.clearFormatterCache();
     }
 
     @Override
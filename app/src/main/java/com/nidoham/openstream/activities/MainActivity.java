@@ -8,12 +8,16 @@ import android.view.MenuItem;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.app.ActionBarDrawerToggle;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
 import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.nidoham.openstream.fragments.list.FeedFragment;
 import com.nidoham.openstream.fragments.list.LatestFragment;
@@ -22,14 +26,23 @@ import com.nidoham.openstream.fragments.list.FavoriteFragment;
 
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.tabs.TabLayout;
+import com.nidoham.openstream.App;
 import com.nidoham.openstream.R;
+import com.nidoham.openstream.adapters.SharedViewPoolOwner;
 
-public class MainActivity extends AppCompatActivity {
+public class MainActivity extends AppCompatActivity implements SharedViewPoolOwner {
+    private static final String KEY_SELECTED_TAB = "key_selected_tab";
+    // the fragment tags of the tabs, in the same order as the tabs
+    @VisibleForTesting
+    static final String[] TAB_FRAGMENT_TAGS = {
+            "tab_feed", "tab_live", "tab_subscriptions", "tab_bookmarks"
+    };
 
     private DrawerLayout drawerLayout;
     private MaterialToolbar toolbar;
     private TabLayout tabLayout;
     private ActionBarDrawerToggle drawerToggle;
+    private int selectedTab = 0;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -39,10 +52,13 @@ public class MainActivity extends AppCompatActivity {
         initViews();
         setupToolbar();
         setupDrawer();
+        if (savedInstanceState != null) {
+            selectedTab = savedInstanceState.getInt(KEY_SELECTED_TAB, 0);
+        }
         setupTabs();
 
-        // Load default fragment for first tab
-        handleTabSelection(0);
+        // Show the fragment for the selected tab (the first one by default)
+        handleTabSelection(selectedTab);
     }
 
     private void initViews() {
@@ -73,6 +89,10 @@ public class MainActivity extends AppCompatActivity {
         tabLayout.addTab(tabLayout.newTab().setIcon(R.drawable.ic_subscription));
         tabLayout.addTab(tabLayout.newTab().setIcon(R.drawable.ic_bookmark));
 
+        // select the restored tab before adding the listener, handleTabSelection() is called
+        // right after anyway
+        tabLayout.selectTab(tabLayout.getTabAt(selectedTab));
+
         tabLayout.addOnTabSelectedListener(new TabLayout.OnTabSelectedListener() {
             @Override
             public void onTabSelected(TabLayout.Tab tab) {
@@ -91,36 +111,73 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Shows the fragment of the tab at the provided position, creating it only the first time the
+     * tab is selected. Fragments of the other tabs are kept alive but hidden, with their lifecycle
+     * capped at {@link Lifecycle.State#STARTED}, so that switching back to them is instant and
+     * does not reload anything, while hidden tabs still get {@code onPause()} and can stop their
+     * periodic work.
+     */
     private void handleTabSelection(int position) {
-        Fragment fragment = null;
+        selectedTab = position;
+
+        final FragmentManager fragmentManager = getSupportFragmentManager();
+        final FragmentTransaction transaction = fragmentManager.beginTransaction()
+                .setReorderingAllowed(true);
+
+        for (int i = 0; i < TAB_FRAGMENT_TAGS.length; i++) {
+            Fragment fragment = fragmentManager.findFragmentByTag(TAB_FRAGMENT_TAGS[i]);
+            if (i == position) {
+                if (fragment == null) {
+                    fragment = createTabFragment(i);
+                    transaction.add(R.id.page_fragment, fragment, TAB_FRAGMENT_TAGS[i]);
+                } else {
+                    transaction.show(fragment);
+                }
+                transaction.setMaxLifecycle(fragment, Lifecycle.State.RESUMED);
+            } else if (fragment != null && !fragment.isHidden()) {
+                transaction.hide(fragment);
+                transaction.setMaxLifecycle(fragment, Lifecycle.State.STARTED);
+            }
+        }
 
+        transaction.commit();
+    }
+
+    @NonNull
+    private static Fragment createTabFragment(int position) {
         switch (position) {
-            case 0:
-                fragment = new FeedFragment();          // Feed tab
-                break;
             case 1:
-                fragment = new LatestFragment();        // Live tab -> LatestFragment
-                break;
+                return new LatestFragment();        // Live tab -> LatestFragment
             case 2:
-                fragment = new SubscriptionFragment();  // Subscription tab
-                break;
+                return new SubscriptionFragment();  // Subscription tab
             case 3:
-                fragment = new FavoriteFragment();      // Bookmarks tab
-                break;
+                return new FavoriteFragment();      // Bookmarks tab
+            case 0:
             default:
-                fragment = new FeedFragment();
-                break;
+                return new FeedFragment();          // Feed tab
         }
+    }
 
-        if (fragment != null) {
-            loadFragment(fragment);
-        }
+    @NonNull
+    @Override
+    public RecyclerView.RecycledViewPool getSharedViewPool() {
+        // shared by the lists of all tabs and with search, so that views inflated for one list
+        // are reused by the others
+        return App.getApp().getSharedViewPool();
     }
 
-    private void loadFragment(Fragment fragment) {
-        FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
-        transaction.replace(R.id.page_fragment, fragment);
-        transaction.commit();
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // pooled views keep this activity as their context
+        App.getApp().getSharedViewPool().clear();
+    }
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putInt(KEY_SELECTED_TAB, selectedTab);
     }
 
     @Override
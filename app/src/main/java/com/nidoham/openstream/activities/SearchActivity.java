@@ -1,18 +1,69 @@
 package com.nidoham.openstream.activities;
 
+import android.content.ActivityNotFoundException;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputMethodManager;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.jakewharton.rxbinding4.widget.RxTextView;
+import com.nidoham.openstream.App;
+import com.nidoham.openstream.R;
+import com.nidoham.openstream.adapters.DisplayItem;
+import com.nidoham.openstream.adapters.SearchResultsAdapter;
+import com.nidoham.openstream.adapters.SharedViewPoolOwner;
 import com.nidoham.openstream.adapters.SuggestionsAdapter;
+import com.nidoham.openstream.database.BookmarkStore;
+import com.nidoham.openstream.database.SubscriptionStore;
 import com.nidoham.openstream.databinding.ActivitySearchBinding;
+import com.nidoham.openstream.paging.Pager;
+import com.nidoham.openstream.search.SearchHistory;
+import com.nidoham.openstream.search.SearchPagingSource;
+import com.nidoham.openstream.search.SuggestionItem;
+import com.nidoham.openstream.search.SuggestionRepository;
+
+import org.schabi.newpipe.extractor.InfoItem;
+import org.schabi.newpipe.util.Constants;
+import org.schabi.newpipe.util.ServiceHelper;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
-public class SearchActivity extends AppCompatActivity {
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+public class SearchActivity extends AppCompatActivity
+        implements Pager.Listener, SharedViewPoolOwner {
+    private static final String TAG = SearchActivity.class.getSimpleName();
 
     private ActivitySearchBinding binding; // ViewBinding instance
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
+    private SearchHistory searchHistory;
+    private SuggestionRepository suggestionRepository;
+    private SuggestionsAdapter suggestionsAdapter;
+
+    private int serviceId;
+    private SearchResultsAdapter searchResultsAdapter;
+    @Nullable
+    private SearchPagingSource searchPagingSource;
+    @Nullable
+    private Pager<InfoItem> searchPager;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -22,11 +73,33 @@ public class SearchActivity extends AppCompatActivity {
         binding = ActivitySearchBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
+        serviceId = ServiceHelper.getSelectedServiceId(this);
+        searchHistory = new SearchHistory(this);
+        suggestionRepository = new SuggestionRepository(serviceId, searchHistory);
+
         setupToolbar();
+        setupResults();
         setupSuggestions();
         setupListeners();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        disposables.dispose();
+        if (searchPager != null) {
+            searchPager.dispose();
+        }
+        // pooled views keep this activity as their context
+        App.getApp().getSharedViewPool().clear();
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.RecycledViewPool getSharedViewPool() {
+        return App.getApp().getSharedViewPool();
+    }
+
     /**
      * Setup the Toolbar with back button functionality
      */
@@ -41,20 +114,209 @@ public class SearchActivity extends AppCompatActivity {
     }
 
     /**
-     * Setup Suggestions RecyclerView
+     * Setup the results RecyclerView, which loads the next page of results as the user scrolls
+     */
+    private void setupResults() {
+        searchResultsAdapter = new SearchResultsAdapter();
+        searchResultsAdapter.setOnItemClickListener(this::onResultClicked);
+        searchResultsAdapter.setOnItemLongClickListener(this::onResultLongClicked);
+        searchResultsAdapter.setOnLoadMoreListener(() -> {
+            if (searchPager != null) {
+                searchPager.loadNextPage();
+            }
+        });
+
+        binding.recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        binding.recyclerView.setRecycledViewPool(getSharedViewPool());
+        binding.recyclerView.setAdapter(searchResultsAdapter);
+    }
+
+    /**
+     * Setup Suggestions RecyclerView and the pipeline feeding it from the search text.
+     * <br>
+     * Queries are debounced, except when their suggestions are already available locally (empty
+     * query or cached), and {@code switchMap} drops the request for a query as soon as the user
+     * types something else, so that stale suggestions never replace newer ones.
      */
     private void setupSuggestions() {
+        suggestionsAdapter = new SuggestionsAdapter(this::onSuggestionClicked);
         binding.suggestions.setLayoutManager(new LinearLayoutManager(this));
+        binding.suggestions.setAdapter(suggestionsAdapter);
 
         // Initially show suggestions
-        binding.suggestions.setVisibility(android.view.View.VISIBLE);
+        binding.suggestions.setVisibility(View.VISIBLE);
+
+        disposables.add(RxTextView.textChanges(binding.etSearch)
+                .map(text -> text.toString().trim())
+                .distinctUntilChanged()
+                .doOnNext(this::onQueryEdited)
+                .debounce(query -> suggestionRepository.isAvailableLocally(query)
+                        ? Observable.<Long>empty()
+                        : Observable.timer(Constants.DEFAULT_THROTTLE_TIMEOUT,
+                                TimeUnit.MILLISECONDS))
+                .switchMapSingle(suggestionRepository::suggestionsFor)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(suggestionsAdapter::submitList,
+                        throwable -> Log.e(TAG, "Could not load suggestions", throwable)));
     }
 
     /**
-     * Setup listeners (currently only clear button placeholder)
+     * Setup listeners for the clear button and the search action of the keyboard
      */
     private void setupListeners() {
         // Clear button currently just clears text
         binding.ivClear.setOnClickListener(v -> binding.etSearch.setText(""));
+
+        binding.etSearch.setOnEditorActionListener((v, actionId, event) -> {
+            if (actionId == EditorInfo.IME_ACTION_SEARCH) {
+                submitSearch(binding.etSearch.getText().toString());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Shows suggestions again as soon as the text differs from the query the results are for
+     */
+    private void onQueryEdited(@NonNull String query) {
+        if (searchPagingSource != null && query.equals(searchPagingSource.getQuery())) {
+            return;
+        }
+        binding.suggestions.setVisibility(View.VISIBLE);
+        binding.recyclerView.setVisibility(View.GONE);
+        binding.correctSuggestion.setVisibility(View.GONE);
+        binding.emptyStateView.setVisibility(View.GONE);
+        binding.loadingProgressBar.setVisibility(View.GONE);
+    }
+
+    private void onSuggestionClicked(@NonNull SuggestionItem item) {
+        binding.etSearch.setText(item.getQuery());
+        binding.etSearch.setSelection(item.getQuery().length());
+        submitSearch(item.getQuery());
+    }
+
+    private void submitSearch(@NonNull String rawQuery) {
+        final String query = rawQuery.trim();
+        if (query.isEmpty()) {
+            return;
+        }
+
+        searchHistory.add(query);
+        hideKeyboard();
+
+        if (searchPager != null) {
+            searchPager.dispose();
+        }
+        searchPagingSource = new SearchPagingSource(serviceId, query);
+        searchPager = new Pager<>(this, searchPagingSource, this);
+
+        searchResultsAdapter.submitList(null);
+        binding.suggestions.setVisibility(View.GONE);
+        binding.recyclerView.setVisibility(View.GONE);
+        binding.correctSuggestion.setVisibility(View.GONE);
+        binding.emptyStateView.setVisibility(View.GONE);
+        binding.loadingProgressBar.setVisibility(View.VISIBLE);
+
+        searchPager.loadNextPage();
+    }
+
+    @Override
+    public void onItemsLoaded(@NonNull List<DisplayItem> items, boolean hasMorePages) {
+        binding.loadingProgressBar.setVisibility(View.GONE);
+        if (items.isEmpty()) {
+            showEmptyState(R.string.search_no_results, R.string.search_no_results_description);
+            return;
+        }
+
+        showCorrectSuggestion();
+        binding.emptyStateView.setVisibility(View.GONE);
+        binding.recyclerView.setVisibility(View.VISIBLE);
+        searchResultsAdapter.submitList(items);
+    }
+
+    @Override
+    public void onLoadError(@NonNull Throwable throwable, boolean isFirstPage) {
+        Log.e(TAG, "Could not load search results", throwable);
+        if (isFirstPage) {
+            binding.loadingProgressBar.setVisibility(View.GONE);
+            showEmptyState(R.string.general_error, R.string.general_error_description);
+        }
+    }
+
+    private void showCorrectSuggestion() {
+        final String suggestion = searchPagingSource == null
+                ? null : searchPagingSource.getSearchSuggestion();
+        if (suggestion == null || suggestion.isEmpty()) {
+            binding.correctSuggestion.setVisibility(View.GONE);
+            return;
+        }
+
+        binding.correctSuggestion.setText(getString(searchPagingSource.isCorrectedSearch()
+                ? R.string.search_showing_result_for : R.string.search_did_you_mean, suggestion));
+        binding.correctSuggestion.setOnClickListener(v -> {
+            binding.etSearch.setText(suggestion);
+            binding.etSearch.setSelection(suggestion.length());
+            submitSearch(suggestion);
+        });
+        binding.correctSuggestion.setVisibility(View.VISIBLE);
+    }
+
+    private void showEmptyState(@StringRes int titleRes, @StringRes int descriptionRes) {
+        binding.recyclerView.setVisibility(View.GONE);
+        binding.emptyStateTitle.setText(titleRes);
+        binding.emptyStateDescription.setText(descriptionRes);
+        binding.emptyStateView.setVisibility(View.VISIBLE);
+    }
+
+    private void onResultClicked(@NonNull DisplayItem item) {
+        try {
+            startActivity(new Intent(Intent.ACTION_VIEW, Uri.parse(item.getUrl())));
+        } catch (final ActivityNotFoundException e) {
+            Log.w(TAG, "No activity can open " + item.getUrl(), e);
+        }
+    }
+
+    /**
+     * Long pressing a channel subscribes to it (or unsubscribes from it if already subscribed),
+     * while long pressing a stream or playlist bookmarks it (or removes its bookmark)
+     */
+    private boolean onResultLongClicked(@NonNull DisplayItem item) {
+        final Single<Integer> toggle;
+        if (item.getInfoType() == InfoItem.InfoType.CHANNEL) {
+            final SubscriptionStore store = new SubscriptionStore(this);
+            toggle = Single.fromCallable(() -> {
+                if (store.isSubscribed(item.getServiceId(), item.getUrl())) {
+                    store.unsubscribe(item.getServiceId(), item.getUrl());
+                    return R.string.unsubscribed_from;
+                }
+                store.subscribe(item.getServiceId(), item.getUrl(), item.getName(),
+                        item.getThumbnailUrl());
+                return R.string.subscribed_to;
+            });
+        } else if (BookmarkStore.isBookmarkable(item)) {
+            final BookmarkStore store = new BookmarkStore(this);
+            toggle = Single.fromCallable(() -> store.toggle(item)
+                    ? R.string.bookmark_added : R.string.bookmark_removed);
+        } else {
+            return false;
+        }
+
+        disposables.add(toggle
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(message -> Toast.makeText(this, getString(message, item.getName()),
+                                Toast.LENGTH_SHORT).show(),
+                        throwable -> Log.e(TAG, "Could not update " + item.getUrl(), throwable)));
+        return true;
+    }
+
+    private void hideKeyboard() {
+        final InputMethodManager imm =
+                (InputMethodManager) getSystemService(Context.INPUT_METHOD_SERVICE);
+        if (imm != null) {
+            imm.hideSoftInputFromWindow(binding.etSearch.getWindowToken(), 0);
+        }
+        binding.etSearch.clearFocus();
     }
-}
\ No newline at end of file
+}
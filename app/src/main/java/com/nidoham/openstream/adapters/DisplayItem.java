@@ -0,0 +1,246 @@
+package com.nidoham.openstream.adapters;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.AnyThread;
+
+import org.schabi.newpipe.extractor.InfoItem;
+import org.schabi.newpipe.extractor.channel.ChannelInfoItem;
+import org.schabi.newpipe.extractor.playlist.PlaylistInfoItem;
+import org.schabi.newpipe.extractor.stream.StreamInfoItem;
+import org.schabi.newpipe.util.Localization;
+import org.schabi.newpipe.util.image.ImageStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What a list item shows, with every text already formatted and the thumbnail already chosen, so
+ * that binding a view only consists in setting texts and starting an image load.
+ * <br>
+ * Instances are created in batches through {@link #fromInfoItems(Context, List)}, usually on a
+ * background thread right after a page has been loaded.
+ */
+public final class DisplayItem {
+    @NonNull
+    private final InfoItem.InfoType infoType;
+    private final int serviceId;
+    @NonNull
+    private final String url;
+    @NonNull
+    private final String name;
+    @Nullable
+    private final String uploaderName;
+    @Nullable
+    private final String thumbnailUrl;
+    @NonNull
+    private final CharSequence details;
+    @NonNull
+    private final CharSequence duration;
+    private final long durationSeconds;
+    private final long streamCount;
+    private final long stableId;
+
+    DisplayItem(@NonNull final InfoItem.InfoType infoType,
+                final int serviceId,
+                @NonNull final String url,
+                @NonNull final String name,
+                @Nullable final String uploaderName,
+                @Nullable final String thumbnailUrl,
+                @NonNull final CharSequence details,
+                @NonNull final CharSequence duration,
+                final long durationSeconds,
+                final long streamCount) {
+        this.infoType = infoType;
+        this.serviceId = serviceId;
+        this.url = url;
+        this.name = name;
+        this.uploaderName = uploaderName;
+        this.thumbnailUrl = thumbnailUrl;
+        this.details = details;
+        this.duration = duration;
+        this.durationSeconds = durationSeconds;
+        this.streamCount = streamCount;
+        this.stableId = computeStableId(infoType, url);
+    }
+
+    /**
+     * @param context the Android context, used to get the plurals resources
+     * @param items   the items to convert
+     * @return the display items, in the same order as {@code items}; items of unsupported types
+     *         (e.g. comments) are skipped
+     */
+    @AnyThread
+    @NonNull
+    public static List<DisplayItem> fromInfoItems(@NonNull final Context context,
+                                                  @NonNull final List<? extends InfoItem> items) {
+        // format the metadata of all streams at once, reusing the plural strings between them
+        final List<StreamInfoItem> streams = new ArrayList<>();
+        for (final InfoItem item : items) {
+            if (item instanceof StreamInfoItem) {
+                streams.add((StreamInfoItem) item);
+            }
+        }
+        final List<Localization.StreamItemMetadata> streamMetadata =
+                Localization.formatStreamItemsMetadata(context, streams);
+
+        final List<DisplayItem> result = new ArrayList<>(items.size());
+        int streamIndex = 0;
+        for (final InfoItem item : items) {
+            final String thumbnailUrl = ImageStrategy.choosePreferredImage(item.getThumbnails());
+
+            if (item instanceof StreamInfoItem) {
+                final StreamInfoItem stream = (StreamInfoItem) item;
+                final Localization.StreamItemMetadata metadata = streamMetadata.get(streamIndex++);
+                result.add(new DisplayItem(InfoItem.InfoType.STREAM, item.getServiceId(),
+                        item.getUrl(), item.getName(), stream.getUploaderName(), thumbnailUrl,
+                        metadata.getDetails(), metadata.getDuration(),
+                        stream.getDuration(), -1));
+
+            } else if (item instanceof ChannelInfoItem) {
+                final ChannelInfoItem channel = (ChannelInfoItem) item;
+                final List<String> details = new ArrayList<>(2);
+                if (channel.getSubscriberCount() >= 0) {
+                    details.add(Localization.shortSubscriberCount(
+                            context, channel.getSubscriberCount()));
+                }
+                if (channel.getStreamCount() >= 0) {
+                    details.add(Localization.localizeStreamCount(
+                            context, channel.getStreamCount()));
+                }
+                result.add(new DisplayItem(InfoItem.InfoType.CHANNEL, item.getServiceId(),
+                        item.getUrl(), item.getName(), null, thumbnailUrl,
+                        Localization.concatenateStrings(Localization.DOT_SEPARATOR, details),
+                        "", -1, channel.getStreamCount()));
+
+            } else if (item instanceof PlaylistInfoItem) {
+                final PlaylistInfoItem playlist = (PlaylistInfoItem) item;
+                result.add(new DisplayItem(InfoItem.InfoType.PLAYLIST, item.getServiceId(),
+                        item.getUrl(), item.getName(), playlist.getUploaderName(), thumbnailUrl,
+                        Localization.localizeStreamCount(context, playlist.getStreamCount()),
+                        "", -1, playlist.getStreamCount()));
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    public InfoItem.InfoType getInfoType() {
+        return infoType;
+    }
+
+    public int getServiceId() {
+        return serviceId;
+    }
+
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @Nullable
+    public String getUploaderName() {
+        return uploaderName;
+    }
+
+    @Nullable
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    /**
+     * @return the secondary line of the item, e.g. the view count and upload date of a stream
+     */
+    @NonNull
+    public CharSequence getDetails() {
+        return details;
+    }
+
+    /**
+     * @return the formatted duration, or an empty string if there is none to show
+     */
+    @NonNull
+    public CharSequence getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return the duration of a stream in seconds, or -1 if unknown or not a stream; the raw
+     *         value behind {@link #getDuration()}, e.g. to store the item
+     */
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * @return the number of streams of a playlist or channel, or -1 if unknown or not applicable
+     */
+    public long getStreamCount() {
+        return streamCount;
+    }
+
+    /**
+     * @return an id derived from the type and URL of the item, which stays the same across pages
+     *         and reloads and can thus be used for RecyclerView stable ids and deduplication
+     */
+    public long getStableId() {
+        return stableId;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DisplayItem)) {
+            return false;
+        }
+        final DisplayItem that = (DisplayItem) o;
+        return isSameExceptDetails(that)
+                && details.toString().contentEquals(that.details);
+    }
+
+    /**
+     * @return whether the two items only differ (if at all) in their {@link #getDetails()}, e.g.
+     *         because the viewer count of a live stream changed, in which case only that text
+     *         needs to be updated
+     */
+    boolean isSameExceptDetails(@NonNull final DisplayItem that) {
+        return stableId == that.stableId
+                && serviceId == that.serviceId
+                && durationSeconds == that.durationSeconds
+                && streamCount == that.streamCount
+                && infoType == that.infoType
+                && url.equals(that.url)
+                && name.equals(that.name)
+                && Objects.equals(uploaderName, that.uploaderName)
+                && Objects.equals(thumbnailUrl, that.thumbnailUrl)
+                && duration.toString().contentEquals(that.duration);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(stableId);
+    }
+
+    /**
+     * A 64-bit polynomial hash, as {@link String#hashCode()} collides far too often to be used as
+     * an id across thousands of items.
+     */
+    private static long computeStableId(@NonNull final InfoItem.InfoType infoType,
+                                        @NonNull final String url) {
+        long hash = 1125899906842597L + infoType.ordinal();
+        for (int i = 0; i < url.length(); ++i) {
+            hash = 31 * hash + url.charAt(i);
+        }
+        return hash;
+    }
+}
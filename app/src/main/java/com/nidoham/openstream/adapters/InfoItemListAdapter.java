@@ -0,0 +1,296 @@
+package com.nidoham.openstream.adapters;
+
+import android.text.TextUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.nidoham.openstream.databinding.ListChannelItemBinding;
+import com.nidoham.openstream.databinding.ListStreamItemBinding;
+
+import org.schabi.newpipe.util.image.PicassoHelper;
+
+import java.util.List;
+
+/**
+ * Shows a list of {@link DisplayItem}s (streams, channels and playlists), e.g. as produced by a
+ * {@link com.nidoham.openstream.paging.Pager}.
+ * <br>
+ * Differences between successive lists are computed on a background thread, items have stable
+ * ids, and {@link OnLoadMoreListener} is notified as soon as an item close to the end of the list
+ * is bound, so that the next page is usually loaded before the user reaches the end.
+ * <br>
+ * When an item only changes in its details (e.g. the viewer count of a live stream), only that
+ * text is updated, without rebinding the rest of the row or reloading its image.
+ */
+public class InfoItemListAdapter extends RecyclerView.Adapter<InfoItemListAdapter.ViewHolder> {
+    public static final int VIEW_TYPE_STREAM = 0;
+    public static final int VIEW_TYPE_CHANNEL = 1;
+    public static final int VIEW_TYPE_PLAYLIST = 2;
+
+    public static final int DEFAULT_PREFETCH_DISTANCE = 5;
+
+    private static final Object PAYLOAD_DETAILS = new Object();
+
+    // enough to fill a few screens, so that switching between lists sharing a pool never inflates
+    private static final int MAX_RECYCLED_STREAM_VIEWS = 24;
+    private static final int MAX_RECYCLED_OTHER_VIEWS = 8;
+
+    public interface OnItemClickListener {
+        void onItemClicked(@NonNull DisplayItem item);
+    }
+
+    public interface OnItemLongClickListener {
+        boolean onItemLongClicked(@NonNull DisplayItem item);
+    }
+
+    public interface OnLoadMoreListener {
+        void onLoadMore();
+    }
+
+    private static final DiffUtil.ItemCallback<DisplayItem> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<DisplayItem>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull DisplayItem oldItem,
+                                               @NonNull DisplayItem newItem) {
+                    return oldItem.getStableId() == newItem.getStableId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull DisplayItem oldItem,
+                                                  @NonNull DisplayItem newItem) {
+                    return oldItem.equals(newItem);
+                }
+
+                @Nullable
+                @Override
+                public Object getChangePayload(@NonNull DisplayItem oldItem,
+                                               @NonNull DisplayItem newItem) {
+                    return oldItem.isSameExceptDetails(newItem) ? PAYLOAD_DETAILS : null;
+                }
+            };
+
+    private final AsyncListDiffer<DisplayItem> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final int prefetchDistance;
+
+    @Nullable
+    private OnItemClickListener onItemClickListener;
+    @Nullable
+    private OnItemLongClickListener onItemLongClickListener;
+    @Nullable
+    private OnLoadMoreListener onLoadMoreListener;
+
+    public InfoItemListAdapter() {
+        this(DEFAULT_PREFETCH_DISTANCE);
+    }
+
+    /**
+     * @param prefetchDistance how many items before the end of the list the
+     *                         {@link OnLoadMoreListener} should be notified
+     */
+    public InfoItemListAdapter(int prefetchDistance) {
+        this.prefetchDistance = prefetchDistance;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Creates a pool to be shared between all of the lists of the app (see
+     * {@link com.nidoham.openstream.App#getSharedViewPool()}), so that views inflated for one
+     * list can be reused by the others.
+     */
+    @NonNull
+    public static RecyclerView.RecycledViewPool createSharedViewPool() {
+        final RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setMaxRecycledViews(VIEW_TYPE_STREAM, MAX_RECYCLED_STREAM_VIEWS);
+        pool.setMaxRecycledViews(VIEW_TYPE_CHANNEL, MAX_RECYCLED_OTHER_VIEWS);
+        pool.setMaxRecycledViews(VIEW_TYPE_PLAYLIST, MAX_RECYCLED_OTHER_VIEWS);
+        return pool;
+    }
+
+    public void setOnItemClickListener(@Nullable OnItemClickListener listener) {
+        this.onItemClickListener = listener;
+    }
+
+    public void setOnItemLongClickListener(@Nullable OnItemLongClickListener listener) {
+        this.onItemLongClickListener = listener;
+    }
+
+    public void setOnLoadMoreListener(@Nullable OnLoadMoreListener listener) {
+        this.onLoadMoreListener = listener;
+    }
+
+    public void submitList(@Nullable List<DisplayItem> items) {
+        differ.submitList(items);
+    }
+
+    @NonNull
+    public List<DisplayItem> getCurrentList() {
+        return differ.getCurrentList();
+    }
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).getStableId();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        switch (differ.getCurrentList().get(position).getInfoType()) {
+            case CHANNEL:
+                return VIEW_TYPE_CHANNEL;
+            case PLAYLIST:
+                return VIEW_TYPE_PLAYLIST;
+            case STREAM:
+            default:
+                return VIEW_TYPE_STREAM;
+        }
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        final LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        final ViewHolder holder;
+        if (viewType == VIEW_TYPE_CHANNEL) {
+            holder = new ChannelViewHolder(
+                    ListChannelItemBinding.inflate(inflater, parent, false));
+        } else {
+            holder = new StreamViewHolder(ListStreamItemBinding.inflate(inflater, parent, false),
+                    viewType == VIEW_TYPE_PLAYLIST);
+        }
+
+        // set once per view instead of on every bind, looking the item up when clicked. Views
+        // come from a pool shared between lists, so the adapter must be the one currently bound.
+        holder.itemView.setOnClickListener(v -> {
+            final InfoItemListAdapter adapter = getBindingAdapter(holder);
+            final DisplayItem item = adapter == null
+                    ? null : adapter.getItemAt(holder.getBindingAdapterPosition());
+            if (item != null && adapter.onItemClickListener != null) {
+                adapter.onItemClickListener.onItemClicked(item);
+            }
+        });
+        holder.itemView.setOnLongClickListener(v -> {
+            final InfoItemListAdapter adapter = getBindingAdapter(holder);
+            final DisplayItem item = adapter == null
+                    ? null : adapter.getItemAt(holder.getBindingAdapterPosition());
+            return item != null && adapter.onItemLongClickListener != null
+                    && adapter.onItemLongClickListener.onItemLongClicked(item);
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.bind(differ.getCurrentList().get(position));
+        notifyLoadMoreIfNeeded(position);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && payloads.stream().allMatch(p -> p == PAYLOAD_DETAILS)) {
+            holder.bindDetails(differ.getCurrentList().get(position));
+            notifyLoadMoreIfNeeded(position);
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    @Nullable
+    private static InfoItemListAdapter getBindingAdapter(@NonNull ViewHolder holder) {
+        final RecyclerView.Adapter<?> adapter = holder.getBindingAdapter();
+        return adapter instanceof InfoItemListAdapter ? (InfoItemListAdapter) adapter : null;
+    }
+
+    @Nullable
+    private DisplayItem getItemAt(int position) {
+        final List<DisplayItem> items = differ.getCurrentList();
+        return position == RecyclerView.NO_POSITION || position >= items.size()
+                ? null : items.get(position);
+    }
+
+    private void notifyLoadMoreIfNeeded(int position) {
+        if (onLoadMoreListener != null && position >= getItemCount() - 1 - prefetchDistance) {
+            onLoadMoreListener.onLoadMore();
+        }
+    }
+
+    public abstract static class ViewHolder extends RecyclerView.ViewHolder {
+        ViewHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+
+        abstract void bind(@NonNull DisplayItem item);
+
+        abstract void bindDetails(@NonNull DisplayItem item);
+    }
+
+    static final class StreamViewHolder extends ViewHolder {
+        private final ListStreamItemBinding binding;
+        private final boolean isPlaylist;
+
+        StreamViewHolder(@NonNull ListStreamItemBinding binding, boolean isPlaylist) {
+            super(binding.getRoot());
+            this.binding = binding;
+            this.isPlaylist = isPlaylist;
+        }
+
+        @Override
+        void bind(@NonNull DisplayItem item) {
+            binding.itemTitle.setText(item.getName());
+            binding.itemUploader.setText(item.getUploaderName());
+            binding.itemUploader.setVisibility(
+                    TextUtils.isEmpty(item.getUploaderName()) ? View.GONE : View.VISIBLE);
+            bindDetails(item);
+            binding.itemDuration.setText(item.getDuration());
+            binding.itemDuration.setVisibility(
+                    item.getDuration().length() == 0 ? View.GONE : View.VISIBLE);
+
+            if (isPlaylist) {
+                PicassoHelper.loadPlaylistThumbnail(item.getThumbnailUrl())
+                        .into(binding.itemThumbnail);
+            } else {
+                PicassoHelper.loadThumbnail(item.getThumbnailUrl()).into(binding.itemThumbnail);
+            }
+        }
+
+        @Override
+        void bindDetails(@NonNull DisplayItem item) {
+            binding.itemDetails.setText(item.getDetails());
+        }
+    }
+
+    static final class ChannelViewHolder extends ViewHolder {
+        private final ListChannelItemBinding binding;
+
+        ChannelViewHolder(@NonNull ListChannelItemBinding binding) {
+            super(binding.getRoot());
+            this.binding = binding;
+        }
+
+        @Override
+        void bind(@NonNull DisplayItem item) {
+            binding.itemTitle.setText(item.getName());
+            bindDetails(item);
+            PicassoHelper.loadAvatar(item.getThumbnailUrl()).into(binding.itemAvatar);
+        }
+
+        @Override
+        void bindDetails(@NonNull DisplayItem item) {
+            binding.itemDetails.setText(item.getDetails());
+            binding.itemDetails.setVisibility(
+                    item.getDetails().length() == 0 ? View.GONE : View.VISIBLE);
+        }
+    }
+}
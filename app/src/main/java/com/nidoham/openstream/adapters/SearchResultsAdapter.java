@@ -1,5 +1,13 @@
 package com.nidoham.openstream.adapters;
 
-public class SearchResultsAdapter {
+/**
+ * Shows search results. Search pages are small and take a while to load, so the next page is
+ * requested earlier than in other lists.
+ */
+public class SearchResultsAdapter extends InfoItemListAdapter {
+    private static final int SEARCH_PREFETCH_DISTANCE = 10;
 
+    public SearchResultsAdapter() {
+        super(SEARCH_PREFETCH_DISTANCE);
+    }
 }
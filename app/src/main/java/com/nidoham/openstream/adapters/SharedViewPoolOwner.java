@@ -0,0 +1,14 @@
+package com.nidoham.openstream.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Implemented by activities hosting multiple lists of {@link DisplayItem}s, so that their
+ * fragments can share a single {@link RecyclerView.RecycledViewPool} (see
+ * {@link InfoItemListAdapter#createSharedViewPool()}).
+ */
+public interface SharedViewPoolOwner {
+    @NonNull
+    RecyclerView.RecycledViewPool getSharedViewPool();
+}
@@ -1,5 +1,72 @@
 package com.nidoham.openstream.adapters;
 
-public class SuggestionsAdapter {
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
 
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.nidoham.openstream.R;
+import com.nidoham.openstream.databinding.ItemSearchSuggestionBinding;
+import com.nidoham.openstream.search.SuggestionItem;
+
+/**
+ * Shows search suggestions, computing the differences between successive suggestion lists on a
+ * background thread so that typing never waits for a full rebind.
+ */
+public class SuggestionsAdapter extends ListAdapter<SuggestionItem, SuggestionsAdapter.ViewHolder> {
+
+    public interface OnSuggestionClickListener {
+        void onSuggestionClicked(@NonNull SuggestionItem item);
+    }
+
+    private static final DiffUtil.ItemCallback<SuggestionItem> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<SuggestionItem>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull SuggestionItem oldItem,
+                                               @NonNull SuggestionItem newItem) {
+                    return oldItem.getQuery().equals(newItem.getQuery());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull SuggestionItem oldItem,
+                                                  @NonNull SuggestionItem newItem) {
+                    return oldItem.equals(newItem);
+                }
+            };
+
+    @NonNull
+    private final OnSuggestionClickListener listener;
+
+    public SuggestionsAdapter(@NonNull OnSuggestionClickListener listener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new ViewHolder(ItemSearchSuggestionBinding.inflate(
+                LayoutInflater.from(parent.getContext()), parent, false));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        final SuggestionItem item = getItem(position);
+        holder.binding.suggestionText.setText(item.getQuery());
+        holder.binding.suggestionIcon.setImageResource(
+                item.isFromHistory() ? R.drawable.ic_history : R.drawable.ic_search);
+        holder.itemView.setOnClickListener(v -> listener.onSuggestionClicked(item));
+    }
+
+    public static final class ViewHolder extends RecyclerView.ViewHolder {
+        final ItemSearchSuggestionBinding binding;
+
+        ViewHolder(@NonNull ItemSearchSuggestionBinding binding) {
+            super(binding.getRoot());
+            this.binding = binding;
+        }
+    }
 }
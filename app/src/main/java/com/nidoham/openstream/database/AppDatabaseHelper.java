@@ -0,0 +1,64 @@
+package com.nidoham.openstream.database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Opens the app database, creating or upgrading its tables. The tables themselves are defined by
+ * the stores using them, i.e. {@link SubscriptionStore} and {@link BookmarkStore}.
+ * <br>
+ * A single instance is shared by the whole app (see {@link #getInstance(Context)}), since
+ * {@link SQLiteOpenHelper} keeps the connection open and serializes writes itself.
+ */
+public final class AppDatabaseHelper extends SQLiteOpenHelper {
+    private static final String DATABASE_NAME = "openstream.db";
+    private static final int DATABASE_VERSION = 2;
+
+    private static volatile AppDatabaseHelper instance;
+
+    private AppDatabaseHelper(@NonNull final Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // lets the feed be read while an update is being written
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @NonNull
+    public static AppDatabaseHelper getInstance(@NonNull final Context context) {
+        AppDatabaseHelper result = instance;
+        if (result == null) {
+            synchronized (AppDatabaseHelper.class) {
+                result = instance;
+                if (result == null) {
+                    result = new AppDatabaseHelper(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void onConfigure(@NonNull final SQLiteDatabase db) {
+        super.onConfigure(db);
+        // needed for the feed streams to be deleted along with their subscription
+        db.setForeignKeyConstraintsEnabled(true);
+    }
+
+    @Override
+    public void onCreate(@NonNull final SQLiteDatabase db) {
+        SubscriptionStore.createTables(db);
+        BookmarkStore.createTables(db);
+    }
+
+    @Override
+    public void onUpgrade(@NonNull final SQLiteDatabase db,
+                          final int oldVersion,
+                          final int newVersion) {
+        if (oldVersion < 2) {
+            BookmarkStore.createTables(db);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.nidoham.openstream.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.nidoham.openstream.adapters.DisplayItem;
+
+import org.schabi.newpipe.extractor.InfoItem;
+import org.schabi.newpipe.extractor.ListExtractor.InfoItemsPage;
+import org.schabi.newpipe.extractor.Page;
+import org.schabi.newpipe.extractor.playlist.PlaylistInfoItem;
+import org.schabi.newpipe.extractor.stream.StreamInfoItem;
+import org.schabi.newpipe.extractor.stream.StreamType;
+import org.schabi.newpipe.util.image.ImageStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores the streams and playlists bookmarked by the user.
+ * <br>
+ * Bookmarks are never loaded all at once: they are read in pages, either newest first or, when
+ * filtering by title, alphabetically, both with keyset pagination backed by an index (the
+ * {@link Page} of the next page holds the sort key and row id of the last bookmark of the
+ * previous one). Title filtering is a case-insensitive prefix match, done as a range on the
+ * {@code COLLATE NOCASE} title column so that SQLite answers it from the title index instead of
+ * scanning the table ({@code LIKE} only uses the index on newer SQLite versions, and not at all
+ * with an {@code ESCAPE} clause before 3.21, i.e. Android 9). Writes of multiple
+ * bookmarks are done in a single transaction. All methods access the database and must be
+ * called off the main thread.
+ */
+public final class BookmarkStore {
+    static final String TABLE_BOOKMARKS = "bookmarks";
+
+    private static final String COLUMN_ID = "_id";
+    private static final String COLUMN_SERVICE_ID = "service_id";
+    private static final String COLUMN_URL = "url";
+    private static final String COLUMN_INFO_TYPE = "info_type";
+    private static final String COLUMN_TITLE = "title";
+    private static final String COLUMN_UPLOADER_NAME = "uploader_name";
+    private static final String COLUMN_THUMBNAIL_URL = "thumbnail_url";
+    private static final String COLUMN_DURATION = "duration";
+    private static final String COLUMN_STREAM_COUNT = "stream_count";
+    private static final String COLUMN_ADDED_TIME = "added_time";
+
+    private static final String INSERT_BOOKMARK = "INSERT OR REPLACE INTO " + TABLE_BOOKMARKS
+            + " (" + COLUMN_SERVICE_ID + ", " + COLUMN_URL + ", " + COLUMN_INFO_TYPE + ", "
+            + COLUMN_TITLE + ", " + COLUMN_UPLOADER_NAME + ", " + COLUMN_THUMBNAIL_URL + ", "
+            + COLUMN_DURATION + ", " + COLUMN_STREAM_COUNT + ", " + COLUMN_ADDED_TIME + ")"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] BOOKMARK_COLUMNS = {
+            COLUMN_ID, COLUMN_SERVICE_ID, COLUMN_URL, COLUMN_INFO_TYPE, COLUMN_TITLE,
+            COLUMN_UPLOADER_NAME, COLUMN_THUMBNAIL_URL, COLUMN_DURATION, COLUMN_STREAM_COUNT,
+            COLUMN_ADDED_TIME
+    };
+    private static final int INDEX_ID = 0;
+    private static final int INDEX_TITLE = 4;
+    private static final int INDEX_ADDED_TIME = 9;
+
+    // incremented on every write, so that lists can tell whether they have to be reloaded
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    @NonNull
+    private final AppDatabaseHelper databaseHelper;
+
+    public BookmarkStore(@NonNull final Context context) {
+        this.databaseHelper = AppDatabaseHelper.getInstance(context);
+    }
+
+    static void createTables(@NonNull final SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_BOOKMARKS + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_SERVICE_ID + " INTEGER NOT NULL, "
+                + COLUMN_URL + " TEXT NOT NULL, "
+                + COLUMN_INFO_TYPE + " TEXT NOT NULL, "
+                + COLUMN_TITLE + " TEXT NOT NULL COLLATE NOCASE, "
+                + COLUMN_UPLOADER_NAME + " TEXT, "
+                + COLUMN_THUMBNAIL_URL + " TEXT, "
+                + COLUMN_DURATION + " INTEGER NOT NULL, "
+                + COLUMN_STREAM_COUNT + " INTEGER NOT NULL, "
+                + COLUMN_ADDED_TIME + " INTEGER NOT NULL, "
+                + "UNIQUE (" + COLUMN_SERVICE_ID + ", " + COLUMN_URL + "))");
+
+        db.execSQL("CREATE INDEX index_bookmarks_added_time ON " + TABLE_BOOKMARKS
+                + " (" + COLUMN_ADDED_TIME + " DESC, " + COLUMN_ID + " DESC)");
+        db.execSQL("CREATE INDEX index_bookmarks_title ON " + TABLE_BOOKMARKS
+                + " (" + COLUMN_TITLE + " COLLATE NOCASE, " + COLUMN_ID + ")");
+    }
+
+    /**
+     * @return a number which changes every time bookmarks are added or removed
+     */
+    public static long getVersion() {
+        return VERSION.get();
+    }
+
+    /*//////////////////////////////////////////////////////////////////////////
+    // Writes
+    //////////////////////////////////////////////////////////////////////////*/
+
+    /**
+     * Bookmarks a single stream or playlist, see {@link #addAll(List)}.
+     */
+    @WorkerThread
+    public void add(@NonNull final DisplayItem item) {
+        addAll(List.of(item));
+    }
+
+    /**
+     * Bookmarks streams and playlists in a single transaction. Items already bookmarked are moved
+     * to the top; items of other types are ignored.
+     */
+    @WorkerThread
+    public void addAll(@NonNull final List<DisplayItem> items) {
+        final SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        final long addedTime = System.currentTimeMillis();
+        db.beginTransaction();
+        try (SQLiteStatement insert = db.compileStatement(INSERT_BOOKMARK)) {
+            for (final DisplayItem item : items) {
+                if (!isBookmarkable(item)) {
+                    continue;
+                }
+
+                insert.clearBindings();
+                insert.bindLong(1, item.getServiceId());
+                insert.bindString(2, item.getUrl());
+                insert.bindString(3, item.getInfoType().name());
+                insert.bindString(4, item.getName());
+                bindNullableString(insert, 5, item.getUploaderName());
+                bindNullableString(insert, 6, item.getThumbnailUrl());
+                insert.bindLong(7, item.getDurationSeconds());
+                insert.bindLong(8, item.getStreamCount());
+                insert.bindLong(9, addedTime);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            VERSION.incrementAndGet();
+        }
+    }
+
+    @WorkerThread
+    public void remove(final int serviceId, @NonNull final String url) {
+        databaseHelper.getWritableDatabase().delete(TABLE_BOOKMARKS,
+                COLUMN_SERVICE_ID + " = ? AND " + COLUMN_URL + " = ?",
+                new String[]{String.valueOf(serviceId), url});
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * Bookmarks the item, or removes its bookmark if it is already bookmarked.
+     *
+     * @return whether the item is now bookmarked
+     */
+    @WorkerThread
+    public boolean toggle(@NonNull final DisplayItem item) {
+        if (isBookmarked(item.getServiceId(), item.getUrl())) {
+            remove(item.getServiceId(), item.getUrl());
+            return false;
+        }
+        add(item);
+        return true;
+    }
+
+    public static boolean isBookmarkable(@NonNull final DisplayItem item) {
+        return item.getInfoType() == InfoItem.InfoType.STREAM
+                || item.getInfoType() == InfoItem.InfoType.PLAYLIST;
+    }
+
+    /*//////////////////////////////////////////////////////////////////////////
+    // Reads
+    //////////////////////////////////////////////////////////////////////////*/
+
+    @WorkerThread
+    public boolean isBookmarked(final int serviceId, @NonNull final String url) {
+        return DatabaseUtils.queryNumEntries(databaseHelper.getReadableDatabase(),
+                TABLE_BOOKMARKS, COLUMN_SERVICE_ID + " = ? AND " + COLUMN_URL + " = ?",
+                new String[]{String.valueOf(serviceId), url}) > 0;
+    }
+
+    @WorkerThread
+    public long getCount() {
+        return DatabaseUtils.queryNumEntries(databaseHelper.getReadableDatabase(), TABLE_BOOKMARKS);
+    }
+
+    /**
+     * @param titlePrefix only return bookmarks whose title starts with this (ignoring case),
+     *                    sorted by title; if empty, return all bookmarks, newest first
+     * @param page        the page returned along with the previous one, or {@code null} for the
+     *                    first
+     * @param limit       the maximum number of bookmarks in the page
+     * @return the bookmarks as {@link StreamInfoItem}s and {@link PlaylistInfoItem}s
+     */
+    @WorkerThread
+    @NonNull
+    public InfoItemsPage<InfoItem> getPage(@NonNull final String titlePrefix,
+                                           @Nullable final Page page,
+                                           final int limit) {
+        final boolean byTitle = !titlePrefix.isEmpty();
+        final List<String> args = new ArrayList<>(4);
+        final StringBuilder selection = new StringBuilder();
+
+        if (byTitle) {
+            // titles starting with the prefix are those in [prefix, prefix with its last
+            // character incremented), as compared by NOCASE
+            final String lowerBound = foldCase(titlePrefix);
+            final String upperBound = getPrefixUpperBound(lowerBound);
+            selection.append(COLUMN_TITLE).append(" >= ?");
+            args.add(lowerBound);
+            if (upperBound != null) {
+                selection.append(" AND ").append(COLUMN_TITLE).append(" < ?");
+                args.add(upperBound);
+            }
+        }
+        if (page != null) {
+            // keyset pagination: continue right after the last bookmark of the previous page
+            if (selection.length() > 0) {
+                selection.append(" AND ");
+            }
+            final String sortKey = byTitle ? COLUMN_TITLE : COLUMN_ADDED_TIME;
+            final String comparison = byTitle ? " > ?" : " < ?";
+            selection.append('(').append(sortKey).append(comparison).append(" OR (")
+                    .append(sortKey).append(" = ? AND ").append(COLUMN_ID).append(comparison)
+                    .append("))");
+            args.add(page.getIds().get(0));
+            args.add(page.getIds().get(0));
+            args.add(page.getIds().get(1));
+        }
+
+        final String order = byTitle
+                ? COLUMN_TITLE + " COLLATE NOCASE ASC, " + COLUMN_ID + " ASC"
+                : COLUMN_ADDED_TIME + " DESC, " + COLUMN_ID + " DESC";
+
+        final List<InfoItem> items = new ArrayList<>(limit);
+        String lastSortKey = null;
+        long lastId = 0;
+        try (Cursor cursor = databaseHelper.getReadableDatabase().query(TABLE_BOOKMARKS,
+                BOOKMARK_COLUMNS, selection.length() == 0 ? null : selection.toString(),
+                args.toArray(new String[0]), null, null, order, String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                items.add(readBookmark(cursor));
+                lastId = cursor.getLong(INDEX_ID);
+                lastSortKey = cursor.getString(byTitle ? INDEX_TITLE : INDEX_ADDED_TIME);
+            }
+        }
+
+        final Page nextPage = items.size() < limit || lastSortKey == null ? null
+                : new Page(List.of(lastSortKey, String.valueOf(lastId)));
+        return new InfoItemsPage<>(items, nextPage, List.of());
+    }
+
+    @NonNull
+    private static InfoItem readBookmark(@NonNull final Cursor cursor) {
+        final int serviceId = cursor.getInt(1);
+        final String url = cursor.getString(2);
+        final String title = cursor.getString(INDEX_TITLE);
+
+        if (InfoItem.InfoType.PLAYLIST.name().equals(cursor.getString(3))) {
+            final PlaylistInfoItem playlist = new PlaylistInfoItem(serviceId, url, title);
+            playlist.setUploaderName(cursor.getString(5));
+            playlist.setThumbnails(ImageStrategy.dbUrlToImageList(cursor.getString(6)));
+            playlist.setStreamCount(cursor.getLong(8));
+            return playlist;
+        } else {
+            final StreamInfoItem stream =
+                    new StreamInfoItem(serviceId, url, title, StreamType.VIDEO_STREAM);
+            stream.setUploaderName(cursor.getString(5));
+            stream.setThumbnails(ImageStrategy.dbUrlToImageList(cursor.getString(6)));
+            stream.setDuration(cursor.getLong(7));
+            return stream;
+        }
+    }
+
+    private static void bindNullableString(@NonNull final SQLiteStatement statement,
+                                           final int index,
+                                           @Nullable final String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    /**
+     * @return the text as NOCASE compares it: with ASCII letters in lower case (other characters
+     * are compared as they are)
+     */
+    @NonNull
+    private static String foldCase(@NonNull final String text) {
+        final StringBuilder folded = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); ++i) {
+            final char c = text.charAt(i);
+            folded.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return folded.toString();
+    }
+
+    /**
+     * @param prefix a prefix folded with {@link #foldCase(String)}
+     * @return the smallest folded text greater than all texts starting with the prefix, or
+     * {@code null} if there is none
+     */
+    @Nullable
+    private static String getPrefixUpperBound(@NonNull final String prefix) {
+        int end = prefix.length();
+        while (end > 0) {
+            final int last = prefix.codePointBefore(end);
+            end -= Character.charCount(last);
+
+            int next = last + 1;
+            if (next >= 'A' && next <= 'Z') {
+                // folded texts contain no upper case letters, and they would be folded anyway
+                next = 'Z' + 1;
+            } else if (next >= Character.MIN_SURROGATE && next <= Character.MAX_SURROGATE) {
+                next = Character.MAX_SURROGATE + 1;
+            }
+            if (next <= Character.MAX_CODE_POINT) {
+                return new StringBuilder(prefix.substring(0, end)).appendCodePoint(next)
+                        .toString();
+            }
+            // nothing comes after the last code point, so increment the one before it
+        }
+        return null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.nidoham.openstream.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A channel the user is subscribed to, as stored by {@link SubscriptionStore}.
+ */
+public final class Subscription {
+    private final long id;
+    private final int serviceId;
+    @NonNull
+    private final String url;
+    @NonNull
+    private final String name;
+    @Nullable
+    private final String avatarUrl;
+    private final long lastUpdated;
+
+    Subscription(final long id,
+                 final int serviceId,
+                 @NonNull final String url,
+                 @NonNull final String name,
+                 @Nullable final String avatarUrl,
+                 final long lastUpdated) {
+        this.id = id;
+        this.serviceId = serviceId;
+        this.url = url;
+        this.name = name;
+        this.avatarUrl = avatarUrl;
+        this.lastUpdated = lastUpdated;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getServiceId() {
+        return serviceId;
+    }
+
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @Nullable
+    public String getAvatarUrl() {
+        return avatarUrl;
+    }
+
+    /**
+     * @return when the feed of this channel was last fetched successfully, in milliseconds since
+     *         the epoch, or 0 if it never was
+     */
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+}
@@ -0,0 +1,362 @@
+package com.nidoham.openstream.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import org.schabi.newpipe.extractor.ListExtractor.InfoItemsPage;
+import org.schabi.newpipe.extractor.Page;
+import org.schabi.newpipe.extractor.localization.DateWrapper;
+import org.schabi.newpipe.extractor.stream.StreamInfoItem;
+import org.schabi.newpipe.extractor.stream.StreamType;
+import org.schabi.newpipe.util.image.ImageStrategy;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the channels the user is subscribed to, along with the latest streams of each of them,
+ * which together make up the subscription feed.
+ * <br>
+ * The feed is read newest first with keyset pagination (the {@link Page} of the next page holds
+ * the upload date and row id of the last stream of the previous one), so reading a page costs
+ * the same however far the user has scrolled. All methods access the database and must be called
+ * off the main thread.
+ */
+public final class SubscriptionStore {
+    static final String TABLE_SUBSCRIPTIONS = "subscriptions";
+    static final String TABLE_FEED_STREAMS = "feed_streams";
+
+    private static final String COLUMN_ID = "_id";
+    private static final String COLUMN_SERVICE_ID = "service_id";
+    private static final String COLUMN_URL = "url";
+    private static final String COLUMN_NAME = "name";
+    private static final String COLUMN_AVATAR_URL = "avatar_url";
+    private static final String COLUMN_LAST_UPDATED = "last_updated";
+
+    private static final String COLUMN_SUBSCRIPTION_ID = "subscription_id";
+    private static final String COLUMN_TITLE = "title";
+    private static final String COLUMN_STREAM_TYPE = "stream_type";
+    private static final String COLUMN_UPLOADER_NAME = "uploader_name";
+    private static final String COLUMN_UPLOADER_URL = "uploader_url";
+    private static final String COLUMN_THUMBNAIL_URL = "thumbnail_url";
+    private static final String COLUMN_DURATION = "duration";
+    private static final String COLUMN_VIEW_COUNT = "view_count";
+    private static final String COLUMN_UPLOAD_DATE = "upload_date";
+    private static final String COLUMN_UPLOAD_DATE_APPROXIMATION = "upload_date_approximation";
+    private static final String COLUMN_TEXTUAL_UPLOAD_DATE = "textual_upload_date";
+
+    private static final String INSERT_FEED_STREAM = "INSERT OR REPLACE INTO " + TABLE_FEED_STREAMS
+            + " (" + COLUMN_SUBSCRIPTION_ID + ", " + COLUMN_SERVICE_ID + ", " + COLUMN_URL + ", "
+            + COLUMN_TITLE + ", " + COLUMN_STREAM_TYPE + ", " + COLUMN_UPLOADER_NAME + ", "
+            + COLUMN_UPLOADER_URL + ", " + COLUMN_THUMBNAIL_URL + ", " + COLUMN_DURATION + ", "
+            + COLUMN_VIEW_COUNT + ", " + COLUMN_UPLOAD_DATE + ", "
+            + COLUMN_UPLOAD_DATE_APPROXIMATION + ", " + COLUMN_TEXTUAL_UPLOAD_DATE + ")"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] FEED_STREAM_COLUMNS = {
+            COLUMN_ID, COLUMN_SERVICE_ID, COLUMN_URL, COLUMN_TITLE, COLUMN_STREAM_TYPE,
+            COLUMN_UPLOADER_NAME, COLUMN_UPLOADER_URL, COLUMN_THUMBNAIL_URL, COLUMN_DURATION,
+            COLUMN_VIEW_COUNT, COLUMN_UPLOAD_DATE, COLUMN_UPLOAD_DATE_APPROXIMATION,
+            COLUMN_TEXTUAL_UPLOAD_DATE
+    };
+    private static final String FEED_ORDER =
+            COLUMN_UPLOAD_DATE + " DESC, " + COLUMN_ID + " DESC";
+
+    @NonNull
+    private final AppDatabaseHelper databaseHelper;
+
+    public SubscriptionStore(@NonNull final Context context) {
+        this.databaseHelper = AppDatabaseHelper.getInstance(context);
+    }
+
+    static void createTables(@NonNull final SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_SUBSCRIPTIONS + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_SERVICE_ID + " INTEGER NOT NULL, "
+                + COLUMN_URL + " TEXT NOT NULL, "
+                + COLUMN_NAME + " TEXT NOT NULL, "
+                + COLUMN_AVATAR_URL + " TEXT, "
+                + COLUMN_LAST_UPDATED + " INTEGER NOT NULL DEFAULT 0, "
+                + "UNIQUE (" + COLUMN_SERVICE_ID + ", " + COLUMN_URL + "))");
+
+        db.execSQL("CREATE TABLE " + TABLE_FEED_STREAMS + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_SUBSCRIPTION_ID + " INTEGER NOT NULL REFERENCES "
+                + TABLE_SUBSCRIPTIONS + " (" + COLUMN_ID + ") ON DELETE CASCADE, "
+                + COLUMN_SERVICE_ID + " INTEGER NOT NULL, "
+                + COLUMN_URL + " TEXT NOT NULL, "
+                + COLUMN_TITLE + " TEXT NOT NULL, "
+                + COLUMN_STREAM_TYPE + " TEXT NOT NULL, "
+                + COLUMN_UPLOADER_NAME + " TEXT, "
+                + COLUMN_UPLOADER_URL + " TEXT, "
+                + COLUMN_THUMBNAIL_URL + " TEXT, "
+                + COLUMN_DURATION + " INTEGER NOT NULL, "
+                + COLUMN_VIEW_COUNT + " INTEGER NOT NULL, "
+                // 0 if unknown, so that such streams are simply shown last
+                + COLUMN_UPLOAD_DATE + " INTEGER NOT NULL, "
+                + COLUMN_UPLOAD_DATE_APPROXIMATION + " INTEGER NOT NULL, "
+                + COLUMN_TEXTUAL_UPLOAD_DATE + " TEXT, "
+                + "UNIQUE (" + COLUMN_SUBSCRIPTION_ID + ", " + COLUMN_URL + "))");
+
+        // the feed is always read in this order, and streams are replaced per subscription
+        db.execSQL("CREATE INDEX index_feed_streams_upload_date ON " + TABLE_FEED_STREAMS
+                + " (" + COLUMN_UPLOAD_DATE + " DESC, " + COLUMN_ID + " DESC)");
+        db.execSQL("CREATE INDEX index_feed_streams_subscription_id ON " + TABLE_FEED_STREAMS
+                + " (" + COLUMN_SUBSCRIPTION_ID + ")");
+    }
+
+    /*//////////////////////////////////////////////////////////////////////////
+    // Subscriptions
+    //////////////////////////////////////////////////////////////////////////*/
+
+    /**
+     * Subscribes to a channel, or updates its name and avatar if already subscribed.
+     */
+    @WorkerThread
+    public void subscribe(final int serviceId,
+                          @NonNull final String url,
+                          @NonNull final String name,
+                          @Nullable final String avatarUrl) {
+        final SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        final ContentValues values = new ContentValues();
+        values.put(COLUMN_NAME, name);
+        values.put(COLUMN_AVATAR_URL, avatarUrl);
+
+        final String[] whereArgs = {String.valueOf(serviceId), url};
+        if (db.update(TABLE_SUBSCRIPTIONS, values, COLUMN_SERVICE_ID + " = ? AND "
+                + COLUMN_URL + " = ?", whereArgs) == 0) {
+            values.put(COLUMN_SERVICE_ID, serviceId);
+            values.put(COLUMN_URL, url);
+            db.insert(TABLE_SUBSCRIPTIONS, null, values);
+        }
+    }
+
+    /**
+     * Unsubscribes from a channel, removing its streams from the feed.
+     */
+    @WorkerThread
+    public void unsubscribe(final int serviceId, @NonNull final String url) {
+        databaseHelper.getWritableDatabase().delete(TABLE_SUBSCRIPTIONS,
+                COLUMN_SERVICE_ID + " = ? AND " + COLUMN_URL + " = ?",
+                new String[]{String.valueOf(serviceId), url});
+    }
+
+    @WorkerThread
+    public boolean isSubscribed(final int serviceId, @NonNull final String url) {
+        return DatabaseUtils.queryNumEntries(databaseHelper.getReadableDatabase(),
+                TABLE_SUBSCRIPTIONS, COLUMN_SERVICE_ID + " = ? AND " + COLUMN_URL + " = ?",
+                new String[]{String.valueOf(serviceId), url}) > 0;
+    }
+
+    @WorkerThread
+    public long getSubscriptionCount() {
+        return DatabaseUtils.queryNumEntries(
+                databaseHelper.getReadableDatabase(), TABLE_SUBSCRIPTIONS);
+    }
+
+    /**
+     * @param timestamp in milliseconds since the epoch; {@link Long#MAX_VALUE} returns all
+     *                  subscriptions
+     * @return the subscriptions whose feed was last updated before the provided time, least
+     *         recently updated first
+     */
+    @WorkerThread
+    @NonNull
+    public List<Subscription> getSubscriptionsUpdatedBefore(final long timestamp) {
+        final List<Subscription> result = new ArrayList<>();
+        try (Cursor cursor = databaseHelper.getReadableDatabase().query(TABLE_SUBSCRIPTIONS,
+                new String[]{COLUMN_ID, COLUMN_SERVICE_ID, COLUMN_URL, COLUMN_NAME,
+                        COLUMN_AVATAR_URL, COLUMN_LAST_UPDATED},
+                COLUMN_LAST_UPDATED + " < ?", new String[]{String.valueOf(timestamp)},
+                null, null, COLUMN_LAST_UPDATED + " ASC")) {
+            while (cursor.moveToNext()) {
+                result.add(new Subscription(cursor.getLong(0), cursor.getInt(1),
+                        cursor.getString(2), cursor.getString(3), cursor.getString(4),
+                        cursor.getLong(5)));
+            }
+        }
+        return result;
+    }
+
+    /*//////////////////////////////////////////////////////////////////////////
+    // Feed
+    //////////////////////////////////////////////////////////////////////////*/
+
+    /**
+     * Replaces the streams of multiple subscriptions in a single transaction, marking them as
+     * updated at the provided time.
+     *
+     * @param streamsBySubscription the latest streams of each subscription, by subscription id
+     * @param updatedAt             the time of the update, in milliseconds since the epoch
+     */
+    @WorkerThread
+    public void saveFeeds(@NonNull final Map<Long, List<StreamInfoItem>> streamsBySubscription,
+                          final long updatedAt) {
+        final SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        db.beginTransaction();
+        try (SQLiteStatement insert = db.compileStatement(INSERT_FEED_STREAM)) {
+            final ContentValues updated = new ContentValues();
+            updated.put(COLUMN_LAST_UPDATED, updatedAt);
+
+            for (final Map.Entry<Long, List<StreamInfoItem>> entry
+                    : streamsBySubscription.entrySet()) {
+                final String[] subscriptionArgs = {String.valueOf(entry.getKey())};
+                // the subscription may have been removed while its feed was being fetched
+                if (db.update(TABLE_SUBSCRIPTIONS, updated, COLUMN_ID + " = ?",
+                        subscriptionArgs) == 0) {
+                    continue;
+                }
+
+                db.delete(TABLE_FEED_STREAMS, COLUMN_SUBSCRIPTION_ID + " = ?", subscriptionArgs);
+                for (final StreamInfoItem stream : entry.getValue()) {
+                    bindFeedStream(insert, entry.getKey(), stream);
+                    insert.executeInsert();
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @param page  the page returned along with the previous one, or {@code null} for the first
+     * @param limit the maximum number of streams in the page
+     * @return the streams of the feed, newest first
+     */
+    @WorkerThread
+    @NonNull
+    public InfoItemsPage<StreamInfoItem> getFeedPage(@Nullable final Page page, final int limit) {
+        final String selection;
+        final String[] selectionArgs;
+        if (page == null) {
+            selection = null;
+            selectionArgs = null;
+        } else {
+            // keyset pagination: continue right after the last stream of the previous page
+            final String uploadDate = page.getIds().get(0);
+            selection = COLUMN_UPLOAD_DATE + " < ? OR (" + COLUMN_UPLOAD_DATE + " = ? AND "
+                    + COLUMN_ID + " < ?)";
+            selectionArgs = new String[]{uploadDate, uploadDate, page.getIds().get(1)};
+        }
+
+        final List<StreamInfoItem> streams = new ArrayList<>(limit);
+        long lastUploadDate = 0;
+        long lastId = 0;
+        try (Cursor cursor = databaseHelper.getReadableDatabase().query(TABLE_FEED_STREAMS,
+                FEED_STREAM_COLUMNS, selection, selectionArgs, null, null, FEED_ORDER,
+                String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                streams.add(readFeedStream(cursor));
+                lastId = cursor.getLong(0);
+                lastUploadDate = cursor.getLong(10);
+            }
+        }
+
+        final Page nextPage = streams.size() < limit ? null
+                : new Page(List.of(String.valueOf(lastUploadDate), String.valueOf(lastId)));
+        return new InfoItemsPage<>(streams, nextPage, List.of());
+    }
+
+    /**
+     * @param nextPage the page following those loaded so far, or {@code null} if all of them were
+     *                 loaded
+     * @return all of the streams of the feed before {@code nextPage}, newest first, i.e. the pages
+     *         loaded so far as they are now, with {@code nextPage} as their next page
+     */
+    @WorkerThread
+    @NonNull
+    public InfoItemsPage<StreamInfoItem> getFeedPagesBefore(@Nullable final Page nextPage) {
+        final String selection;
+        final String[] selectionArgs;
+        if (nextPage == null) {
+            selection = null;
+            selectionArgs = null;
+        } else {
+            // the key of the next page is the last stream loaded, so it is included
+            final String uploadDate = nextPage.getIds().get(0);
+            selection = COLUMN_UPLOAD_DATE + " > ? OR (" + COLUMN_UPLOAD_DATE + " = ? AND "
+                    + COLUMN_ID + " >= ?)";
+            selectionArgs = new String[]{uploadDate, uploadDate, nextPage.getIds().get(1)};
+        }
+
+        final List<StreamInfoItem> streams = new ArrayList<>();
+        try (Cursor cursor = databaseHelper.getReadableDatabase().query(TABLE_FEED_STREAMS,
+                FEED_STREAM_COLUMNS, selection, selectionArgs, null, null, FEED_ORDER)) {
+            while (cursor.moveToNext()) {
+                streams.add(readFeedStream(cursor));
+            }
+        }
+        return new InfoItemsPage<>(streams, nextPage, List.of());
+    }
+
+    private static void bindFeedStream(@NonNull final SQLiteStatement insert,
+                                       final long subscriptionId,
+                                       @NonNull final StreamInfoItem stream) {
+        insert.clearBindings();
+        insert.bindLong(1, subscriptionId);
+        insert.bindLong(2, stream.getServiceId());
+        insert.bindString(3, stream.getUrl());
+        insert.bindString(4, stream.getName() == null ? "" : stream.getName());
+        insert.bindString(5, stream.getStreamType().name());
+        bindNullableString(insert, 6, stream.getUploaderName());
+        bindNullableString(insert, 7, stream.getUploaderUrl());
+        bindNullableString(insert, 8, ImageStrategy.imageListToDbUrl(stream.getThumbnails()));
+        insert.bindLong(9, stream.getDuration());
+        insert.bindLong(10, stream.getViewCount());
+
+        final DateWrapper uploadDate = stream.getUploadDate();
+        insert.bindLong(11, uploadDate == null
+                ? 0 : uploadDate.offsetDateTime().toInstant().toEpochMilli());
+        insert.bindLong(12, uploadDate == null || uploadDate.isApproximation() ? 1 : 0);
+        bindNullableString(insert, 13, stream.getTextualUploadDate());
+    }
+
+    private static void bindNullableString(@NonNull final SQLiteStatement statement,
+                                           final int index,
+                                           @Nullable final String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    @NonNull
+    private static StreamInfoItem readFeedStream(@NonNull final Cursor cursor) {
+        StreamType streamType;
+        try {
+            streamType = StreamType.valueOf(cursor.getString(4));
+        } catch (final IllegalArgumentException e) {
+            streamType = StreamType.VIDEO_STREAM;
+        }
+
+        final StreamInfoItem stream = new StreamInfoItem(
+                cursor.getInt(1), cursor.getString(2), cursor.getString(3), streamType);
+        stream.setUploaderName(cursor.getString(5));
+        stream.setUploaderUrl(cursor.getString(6));
+        stream.setThumbnails(ImageStrategy.dbUrlToImageList(cursor.getString(7)));
+        stream.setDuration(cursor.getLong(8));
+        stream.setViewCount(cursor.getLong(9));
+
+        final long uploadDate = cursor.getLong(10);
+        if (uploadDate > 0) {
+            stream.setUploadDate(new DateWrapper(OffsetDateTime.ofInstant(
+                    Instant.ofEpochMilli(uploadDate), ZoneOffset.UTC), cursor.getInt(11) != 0));
+        }
+        stream.setTextualUploadDate(cursor.getString(12));
+        return stream;
+    }
+}
@@ -0,0 +1,192 @@
+package com.nidoham.openstream.feed;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.nidoham.openstream.database.Subscription;
+import com.nidoham.openstream.database.SubscriptionStore;
+
+import org.schabi.newpipe.extractor.InfoItem;
+import org.schabi.newpipe.extractor.channel.tabs.ChannelTabInfo;
+import org.schabi.newpipe.extractor.channel.tabs.ChannelTabs;
+import org.schabi.newpipe.extractor.linkhandler.ListLinkHandler;
+import org.schabi.newpipe.extractor.stream.StreamInfoItem;
+import org.schabi.newpipe.util.ChannelSummary;
+import org.schabi.newpipe.util.ExtractorHelper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Updates the subscription feed stored in {@link SubscriptionStore}, by fetching the latest
+ * uploads of every subscribed channel whose feed is stale.
+ * <br>
+ * Channels are fetched in parallel, but at most {@link #MAX_CONCURRENT_FETCHES} at a time so as
+ * not to trigger rate limiting, and results are written in batches (one transaction per batch),
+ * emitting an {@link Progress} after each one, so that the feed can be refreshed incrementally
+ * while the update is still running. A channel that fails to load does not stop the update, and
+ * is retried the next time, since its feed is still stale.
+ */
+public final class FeedUpdateEngine {
+    private static final String TAG = FeedUpdateEngine.class.getSimpleName();
+
+    /**
+     * Feeds updated more recently than this are not fetched again, unless all are refreshed.
+     */
+    public static final long STALE_THRESHOLD_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    @VisibleForTesting
+    static final int MAX_CONCURRENT_FETCHES = 4;
+    private static final int BATCH_SIZE = 25;
+    private static final long BATCH_TIMEOUT_MILLIS = 1000;
+
+    @NonNull
+    private final SubscriptionStore store;
+
+    public FeedUpdateEngine(@NonNull final SubscriptionStore store) {
+        this.store = store;
+    }
+
+    /**
+     * @param refreshAll whether to fetch all channels, and not only those whose feed is stale
+     * @return emits the progress after every batch of channels has been saved; completes without
+     *         emitting anything if no channel needs to be fetched
+     */
+    @NonNull
+    public Observable<Progress> update(final boolean refreshAll) {
+        return Single.fromCallable(() -> store.getSubscriptionsUpdatedBefore(refreshAll
+                        ? Long.MAX_VALUE : System.currentTimeMillis() - STALE_THRESHOLD_MILLIS))
+                .subscribeOn(Schedulers.io())
+                .flatMapObservable(this::update);
+    }
+
+    @NonNull
+    private Observable<Progress> update(@NonNull final List<Subscription> subscriptions) {
+        if (subscriptions.isEmpty()) {
+            return Observable.empty();
+        }
+
+        final long startMillis = SystemClock.elapsedRealtime();
+        final int total = subscriptions.size();
+        final int[] counts = new int[2]; // done and failed, only accessed when saving batches
+
+        return Flowable.fromIterable(subscriptions)
+                .flatMapSingle(this::fetch, false, MAX_CONCURRENT_FETCHES)
+                .buffer(BATCH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS, Schedulers.io(), BATCH_SIZE)
+                .filter(batch -> !batch.isEmpty())
+                .map(batch -> {
+                    final Map<Long, List<StreamInfoItem>> streams = new HashMap<>();
+                    for (final ChannelResult result : batch) {
+                        if (result.streams == null) {
+                            ++counts[1];
+                        } else {
+                            streams.put(result.subscription.getId(), result.streams);
+                        }
+                    }
+                    store.saveFeeds(streams, System.currentTimeMillis());
+                    counts[0] += batch.size();
+                    return new Progress(counts[0], counts[1], total);
+                })
+                .doOnComplete(() -> Log.i(TAG, "Updated " + total + " subscriptions in "
+                        + (SystemClock.elapsedRealtime() - startMillis) + "ms, "
+                        + counts[1] + " failed"))
+                .toObservable();
+    }
+
+    @NonNull
+    private Single<ChannelResult> fetch(@NonNull final Subscription subscription) {
+        final int serviceId = subscription.getServiceId();
+        return ExtractorHelper.getChannelSummary(serviceId, subscription.getUrl(), true)
+                .flatMap(channel -> {
+                    final ListLinkHandler videosTab = findVideosTab(channel);
+                    if (videosTab == null) {
+                        return Single.just(List.<InfoItem>of());
+                    }
+                    return ExtractorHelper.getChannelTab(serviceId, videosTab, true)
+                            .map(ChannelTabInfo::getRelatedItems);
+                })
+                .map(items -> new ChannelResult(subscription, filterStreams(items)))
+                .onErrorReturn(throwable -> {
+                    Log.w(TAG, "Could not update the feed of " + subscription.getUrl(),
+                            throwable);
+                    return new ChannelResult(subscription, null);
+                })
+                .subscribeOn(Schedulers.io());
+    }
+
+    @Nullable
+    private static ListLinkHandler findVideosTab(@NonNull final ChannelSummary channel) {
+        for (final ListLinkHandler tab : channel.getTabs()) {
+            if (tab.getContentFilters().contains(ChannelTabs.VIDEOS)) {
+                return tab;
+            }
+        }
+        return null;
+    }
+
+    @NonNull
+    private static List<StreamInfoItem> filterStreams(@NonNull final List<InfoItem> items) {
+        final List<StreamInfoItem> streams = new ArrayList<>(items.size());
+        for (final InfoItem item : items) {
+            if (item instanceof StreamInfoItem) {
+                streams.add((StreamInfoItem) item);
+            }
+        }
+        return streams;
+    }
+
+    private static final class ChannelResult {
+        @NonNull
+        final Subscription subscription;
+        @Nullable
+        final List<StreamInfoItem> streams; // null if the channel could not be fetched
+
+        ChannelResult(@NonNull final Subscription subscription,
+                      @Nullable final List<StreamInfoItem> streams) {
+            this.subscription = subscription;
+            this.streams = streams;
+        }
+    }
+
+    public static final class Progress {
+        private final int done;
+        private final int failed;
+        private final int total;
+
+        Progress(final int done, final int failed, final int total) {
+            this.done = done;
+            this.failed = failed;
+            this.total = total;
+        }
+
+        /**
+         * @return how many channels have been fetched so far, including failed ones
+         */
+        public int getDone() {
+            return done;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public boolean isComplete() {
+            return done == total;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.nidoham.openstream.feed;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nidoham.openstream.database.SubscriptionStore;
+import com.nidoham.openstream.paging.PagingSource;
+
+import org.schabi.newpipe.extractor.ListExtractor.InfoItemsPage;
+import org.schabi.newpipe.extractor.Page;
+import org.schabi.newpipe.extractor.stream.StreamInfoItem;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Pages through the subscription feed stored in {@link SubscriptionStore}, newest first. Pages
+ * are keyed by their last stream, so the pages loaded so far can be reloaded at once.
+ */
+public final class SubscriptionFeedPagingSource implements PagingSource<StreamInfoItem> {
+    private static final int PAGE_SIZE = 40;
+
+    @NonNull
+    private final SubscriptionStore store;
+
+    public SubscriptionFeedPagingSource(@NonNull final SubscriptionStore store) {
+        this.store = store;
+    }
+
+    @NonNull
+    @Override
+    public Single<InfoItemsPage<StreamInfoItem>> load(@Nullable final Page page) {
+        return Single.fromCallable(() -> store.getFeedPage(page, PAGE_SIZE));
+    }
+
+    @NonNull
+    @Override
+    public Single<InfoItemsPage<StreamInfoItem>> reloadBefore(@Nullable final Page nextPage) {
+        return Single.fromCallable(() -> store.getFeedPagesBefore(nextPage));
+    }
+}
@@ -1,19 +1,46 @@
 package com.nidoham.openstream.fragments.list;
 
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.fragment.app.Fragment;
 
+import com.jakewharton.rxbinding4.widget.RxTextView;
+import com.nidoham.openstream.R;
+import com.nidoham.openstream.adapters.DisplayItem;
+import com.nidoham.openstream.database.BookmarkStore;
 import com.nidoham.openstream.databinding.FragmentFavoriteBinding;
+import com.nidoham.openstream.paging.BookmarkPagingSource;
+import com.nidoham.openstream.paging.Pager;
 
-public class FavoriteFragment extends Fragment {
+import org.schabi.newpipe.extractor.InfoItem;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+
+/**
+ * Shows the bookmarked streams and playlists, newest first, or filtered by title as the user
+ * types. Bookmarks are read page by page from {@link BookmarkStore}, so the list stays responsive
+ * however many there are.
+ */
+public class FavoriteFragment extends InfoListFragment implements Pager.Listener {
+    private static final String TAG = FavoriteFragment.class.getSimpleName();
+    // filtering is an indexed local query, so only wait for the user to stop typing briefly
+    private static final long FILTER_DEBOUNCE_MILLIS = 150;
 
     private FragmentFavoriteBinding binding;
+    private BookmarkStore store;
+    @Nullable
+    private Pager<InfoItem> pager;
+    @NonNull
+    private String filter = "";
+    private long loadedVersion = -1;
 
     public FavoriteFragment() {
         // Required empty public constructor
@@ -25,12 +52,78 @@ public class FavoriteFragment extends Fragment {
                              @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
         binding = FragmentFavoriteBinding.inflate(inflater, container, false);
+        setupList(binding.listContent);
+        getAdapter().setOnLoadMoreListener(() -> {
+            if (pager != null) {
+                pager.loadNextPage();
+            }
+        });
         return binding.getRoot();
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        store = new BookmarkStore(requireContext());
+
+        viewDisposables.add(RxTextView.textChanges(binding.etFilter)
+                .skipInitialValue()
+                .map(text -> text.toString().trim())
+                .debounce(FILTER_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)
+                .distinctUntilChanged()
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(newFilter -> {
+                    filter = newFilter;
+                    reload();
+                }, throwable -> Log.e(TAG, "Could not filter bookmarks", throwable)));
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        // bookmarks may have been changed from other tabs or activities
+        if (loadedVersion != BookmarkStore.getVersion()) {
+            reload();
+        }
+    }
+
     @Override
     public void onDestroyView() {
+        if (pager != null) {
+            pager.dispose();
+            pager = null;
+        }
         super.onDestroyView();
-        binding = null; // Avoid memory leaks
+        binding = null; // Prevent memory leaks
+    }
+
+    private void reload() {
+        if (pager != null) {
+            pager.dispose();
+        }
+        loadedVersion = BookmarkStore.getVersion();
+        pager = new Pager<>(requireContext(), new BookmarkPagingSource(store, filter), this);
+        showLoading();
+        pager.loadNextPage();
+    }
+
+    @Override
+    protected void onBookmarkToggled(@NonNull DisplayItem item, boolean bookmarked) {
+        super.onBookmarkToggled(item, bookmarked);
+        reload();
+    }
+
+    @Override
+    public void onItemsLoaded(@NonNull List<DisplayItem> items, boolean hasMorePages) {
+        showItems(items, filter.isEmpty()
+                ? R.string.bookmarks_empty : R.string.bookmarks_no_match);
+    }
+
+    @Override
+    public void onLoadError(@NonNull Throwable throwable, boolean isFirstPage) {
+        Log.e(TAG, "Could not load bookmarks", throwable);
+        if (isFirstPage) {
+            showMessage(R.string.general_error);
+        }
     }
-}
\ No newline at end of file
+}
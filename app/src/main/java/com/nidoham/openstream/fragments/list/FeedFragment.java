@@ -1,19 +1,39 @@
 package com.nidoham.openstream.fragments.list;
 
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.fragment.app.Fragment;
 
+import com.nidoham.openstream.R;
+import com.nidoham.openstream.adapters.DisplayItem;
 import com.nidoham.openstream.databinding.FragmentFeedBinding;
+import com.nidoham.openstream.paging.KioskPagingSource;
+import com.nidoham.openstream.paging.Pager;
 
-public class FeedFragment extends Fragment {
+import org.schabi.newpipe.extractor.exceptions.ExtractionException;
+import org.schabi.newpipe.extractor.stream.StreamInfoItem;
+import org.schabi.newpipe.util.ServiceHelper;
+
+import java.util.List;
+
+/**
+ * Shows the default kiosk (usually trending) of the selected service, page by page.
+ * <br>
+ * The first page is taken from the cache synchronously when possible, so that the tab shows
+ * content in the same frame it becomes visible, and every following page is appended as soon as
+ * it is loaded.
+ */
+public class FeedFragment extends InfoListFragment implements Pager.Listener {
+    private static final String TAG = FeedFragment.class.getSimpleName();
 
     private FragmentFeedBinding binding;
+    @Nullable
+    private Pager<StreamInfoItem> pager;
 
     public FeedFragment() {
         // Required empty public constructor
@@ -25,12 +45,53 @@ public class FeedFragment extends Fragment {
                              @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
         binding = FragmentFeedBinding.inflate(inflater, container, false);
+        setupList(binding.listContent);
+        getAdapter().setOnLoadMoreListener(() -> {
+            if (pager != null) {
+                pager.loadNextPage();
+            }
+        });
         return binding.getRoot();
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        final int serviceId = ServiceHelper.getSelectedServiceId(requireContext());
+        try {
+            pager = new Pager<>(requireContext(), new KioskPagingSource(serviceId,
+                    KioskPagingSource.getDefaultKioskUrl(serviceId), false), this);
+        } catch (final ExtractionException e) {
+            Log.e(TAG, "Could not get the default kiosk of service " + serviceId, e);
+            showMessage(R.string.general_error);
+            return;
+        }
+
+        showLoading();
+        pager.loadNextPage();
+    }
+
     @Override
     public void onDestroyView() {
+        if (pager != null) {
+            pager.dispose();
+            pager = null;
+        }
         super.onDestroyView();
         binding = null; // Prevent memory leaks
     }
-}
\ No newline at end of file
+
+    @Override
+    public void onItemsLoaded(@NonNull List<DisplayItem> items, boolean hasMorePages) {
+        showItems(items, R.string.feed_empty);
+    }
+
+    @Override
+    public void onLoadError(@NonNull Throwable throwable, boolean isFirstPage) {
+        Log.e(TAG, "Could not load the feed", throwable);
+        if (isFirstPage) {
+            showMessage(R.string.general_error);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.nidoham.openstream.fragments.list;
+
+import android.content.ActivityNotFoundException;
+import android.content.Intent;
+import android.net.Uri;
+import android.util.Log;
+import android.view.View;
+import android.widget.Toast;
+
+import androidx.annotation.CallSuper;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+
+import com.nidoham.openstream.R;
+import com.nidoham.openstream.adapters.DisplayItem;
+import com.nidoham.openstream.adapters.InfoItemListAdapter;
+import com.nidoham.openstream.adapters.SharedViewPoolOwner;
+import com.nidoham.openstream.database.BookmarkStore;
+import com.nidoham.openstream.databinding.ListContentBinding;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Base class of the tabs showing a list of {@link DisplayItem}s, taking care of the
+ * RecyclerView (sharing the view pool of the activity, if it provides one) and of switching
+ * between the loading, content and empty states.
+ * <br>
+ * Subclasses inflate their own layout, which has to include {@code list_content.xml}, and pass it
+ * to {@link #setupList(ListContentBinding)} in {@code onCreateView()}.
+ * <br>
+ * Long pressing a stream or playlist bookmarks it, or removes its bookmark.
+ */
+public abstract class InfoListFragment extends Fragment {
+    private static final String TAG = InfoListFragment.class.getSimpleName();
+
+    @Nullable
+    private ListContentBinding listContent;
+    @Nullable
+    private InfoItemListAdapter adapter;
+    // cleared when the view is destroyed
+    protected final CompositeDisposable viewDisposables = new CompositeDisposable();
+
+    protected void setupList(@NonNull ListContentBinding listContent) {
+        this.listContent = listContent;
+        adapter = createAdapter();
+        adapter.setOnItemClickListener(this::onItemClicked);
+        adapter.setOnItemLongClickListener(this::onItemLongClicked);
+
+        listContent.recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        if (requireActivity() instanceof SharedViewPoolOwner) {
+            listContent.recyclerView.setRecycledViewPool(
+                    ((SharedViewPoolOwner) requireActivity()).getSharedViewPool());
+        }
+        listContent.recyclerView.setAdapter(adapter);
+    }
+
+    @NonNull
+    protected InfoItemListAdapter createAdapter() {
+        return new InfoItemListAdapter();
+    }
+
+    @Nullable
+    protected InfoItemListAdapter getAdapter() {
+        return adapter;
+    }
+
+    @CallSuper
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        viewDisposables.clear();
+        listContent = null; // Prevent memory leaks
+        adapter = null;
+    }
+
+    /*//////////////////////////////////////////////////////////////////////////
+    // States
+    //////////////////////////////////////////////////////////////////////////*/
+
+    protected void showLoading() {
+        if (listContent == null || (adapter != null && adapter.getItemCount() > 0)) {
+            return; // keep showing the current items while loading new ones
+        }
+        listContent.recyclerView.setVisibility(View.GONE);
+        listContent.tvEmpty.setVisibility(View.GONE);
+        listContent.loadingProgressBar.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * @param items      the items to show
+     * @param emptyTitle the text to show if there are no items
+     */
+    protected void showItems(@NonNull List<DisplayItem> items, @StringRes int emptyTitle) {
+        if (listContent == null || adapter == null) {
+            return;
+        }
+        listContent.loadingProgressBar.setVisibility(View.GONE);
+        adapter.submitList(items);
+
+        if (items.isEmpty()) {
+            showMessage(emptyTitle);
+        } else {
+            listContent.tvEmpty.setVisibility(View.GONE);
+            listContent.recyclerView.setVisibility(View.VISIBLE);
+        }
+    }
+
+    /**
+     * Shows a message instead of the items, e.g. after the first page could not be loaded.
+     */
+    protected void showMessage(@StringRes int message) {
+        if (listContent == null) {
+            return;
+        }
+        listContent.loadingProgressBar.setVisibility(View.GONE);
+        listContent.recyclerView.setVisibility(View.GONE);
+        listContent.tvEmpty.setText(message);
+        listContent.tvEmpty.setVisibility(View.VISIBLE);
+    }
+
+    /*//////////////////////////////////////////////////////////////////////////
+    // Item actions
+    //////////////////////////////////////////////////////////////////////////*/
+
+    protected void onItemClicked(@NonNull DisplayItem item) {
+        try {
+            startActivity(new Intent(Intent.ACTION_VIEW, Uri.parse(item.getUrl())));
+        } catch (final ActivityNotFoundException e) {
+            Log.w(TAG, "No activity can open " + item.getUrl(), e);
+        }
+    }
+
+    protected boolean onItemLongClicked(@NonNull DisplayItem item) {
+        if (!BookmarkStore.isBookmarkable(item)) {
+            return false;
+        }
+
+        final BookmarkStore store = new BookmarkStore(requireContext());
+        viewDisposables.add(Single.fromCallable(() -> store.toggle(item))
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(bookmarked -> onBookmarkToggled(item, bookmarked),
+                        throwable -> Log.e(TAG, "Could not update bookmark", throwable)));
+        return true;
+    }
+
+    protected void onBookmarkToggled(@NonNull DisplayItem item, boolean bookmarked) {
+        Toast.makeText(requireContext(), bookmarked
+                ? R.string.bookmark_added : R.string.bookmark_removed, Toast.LENGTH_SHORT).show();
+    }
+}
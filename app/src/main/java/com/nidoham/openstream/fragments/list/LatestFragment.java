@@ -1,19 +1,65 @@
 package com.nidoham.openstream.fragments.list;
 
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.fragment.app.Fragment;
 
+import com.nidoham.openstream.R;
+import com.nidoham.openstream.adapters.DisplayItem;
 import com.nidoham.openstream.databinding.FragmentLatestBinding;
+import com.nidoham.openstream.paging.KioskPagingSource;
+import com.nidoham.openstream.paging.Pager;
 
-public class LatestFragment extends Fragment {
+import org.schabi.newpipe.extractor.exceptions.ExtractionException;
+import org.schabi.newpipe.extractor.stream.StreamInfoItem;
+import org.schabi.newpipe.util.ServiceHelper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/**
+ * Shows the live kiosk of the selected service, refreshing it periodically so that viewer counts
+ * stay current.
+ * <br>
+ * Refreshes are only scheduled while the fragment is resumed: hidden tabs are paused (see
+ * {@code MainActivity}) and so is the whole activity when the app goes to the background, so no
+ * request is ever made for a list nobody is looking at. When the tab comes back, it is refreshed
+ * right away only if the last refresh is older than the interval. The first load may come from
+ * the cache, while periodic refreshes force a network load, as that is their whole point. Failed
+ * refreshes double the interval, up to {@link #MAX_REFRESH_INTERVAL_MILLIS}.
+ * <br>
+ * Refreshes only reload the first page and merge it into the list, keeping the pages loaded after
+ * it and thus the scroll position. Refreshed items are diffed against the current ones, so rows
+ * whose viewer count changed only get their details text updated (as formatted by
+ * {@link org.schabi.newpipe.util.Localization#formatStreamItemsMetadata}, i.e. with
+ * {@link org.schabi.newpipe.util.Localization#shortWatchingCount}'s format).
+ */
+public class LatestFragment extends InfoListFragment implements Pager.Listener {
+    private static final String TAG = LatestFragment.class.getSimpleName();
+    private static final long REFRESH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_REFRESH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
 
     private FragmentLatestBinding binding;
+    private int serviceId;
+    @Nullable
+    private String kioskUrl;
+    @Nullable
+    private Pager<StreamInfoItem> pager;
+    @Nullable
+    private Disposable scheduledRefresh;
+    private boolean refreshing = false;
+    private long lastRefreshMillis = 0; // SystemClock.elapsedRealtime(), 0 if never refreshed
+    private int consecutiveFailures = 0;
 
     public LatestFragment() {
         // Required empty public constructor
@@ -25,12 +71,126 @@ public class LatestFragment extends Fragment {
                              @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
         binding = FragmentLatestBinding.inflate(inflater, container, false);
+        setupList(binding.listContent);
+        getAdapter().setOnLoadMoreListener(() -> {
+            if (pager != null && !refreshing) {
+                pager.loadNextPage();
+            }
+        });
         return binding.getRoot();
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        serviceId = ServiceHelper.getSelectedServiceId(requireContext());
+        try {
+            kioskUrl = KioskPagingSource.getLiveKioskUrl(serviceId);
+        } catch (final ExtractionException e) {
+            Log.e(TAG, "Could not get the live kiosk of service " + serviceId, e);
+            showMessage(R.string.general_error);
+            return;
+        }
+        showLoading();
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        scheduleRefresh();
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        cancelScheduledRefresh();
+    }
+
     @Override
     public void onDestroyView() {
+        cancelScheduledRefresh();
+        if (pager != null) {
+            pager.dispose();
+            pager = null;
+        }
+        refreshing = false;
+        lastRefreshMillis = 0;
         super.onDestroyView();
         binding = null; // Prevent memory leaks
     }
-}
\ No newline at end of file
+
+    /*//////////////////////////////////////////////////////////////////////////
+    // Refresh scheduling
+    //////////////////////////////////////////////////////////////////////////*/
+
+    private void scheduleRefresh() {
+        cancelScheduledRefresh();
+        if (kioskUrl == null || refreshing) {
+            return; // will be scheduled again once the current refresh completes
+        }
+
+        final long delay = lastRefreshMillis == 0 ? 0 : Math.max(0,
+                lastRefreshMillis + getRefreshInterval() - SystemClock.elapsedRealtime());
+        scheduledRefresh = Completable.timer(delay, TimeUnit.MILLISECONDS,
+                        AndroidSchedulers.mainThread())
+                .subscribe(this::refresh);
+    }
+
+    private void cancelScheduledRefresh() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.dispose();
+            scheduledRefresh = null;
+        }
+    }
+
+    private long getRefreshInterval() {
+        return Math.min(MAX_REFRESH_INTERVAL_MILLIS,
+                REFRESH_INTERVAL_MILLIS << Math.min(consecutiveFailures, 4));
+    }
+
+    private void refresh() {
+        refreshing = true;
+        if (pager == null) {
+            // only the very first load may come from the cache
+            pager = new Pager<>(requireContext(),
+                    new KioskPagingSource(serviceId, kioskUrl, false), this);
+            pager.loadNextPage();
+        } else {
+            // keeps the pages the user scrolled through, only replacing the first one
+            pager.refreshFirstPage(new KioskPagingSource(serviceId, kioskUrl, true));
+        }
+    }
+
+    private void onRefreshCompleted(final boolean successful) {
+        refreshing = false;
+        lastRefreshMillis = SystemClock.elapsedRealtime();
+        consecutiveFailures = successful ? 0 : consecutiveFailures + 1;
+        if (isResumed()) {
+            scheduleRefresh();
+        }
+    }
+
+    /*//////////////////////////////////////////////////////////////////////////
+    // Pager.Listener
+    //////////////////////////////////////////////////////////////////////////*/
+
+    @Override
+    public void onItemsLoaded(@NonNull List<DisplayItem> items, boolean hasMorePages) {
+        showItems(items, R.string.live_empty);
+        if (refreshing) {
+            onRefreshCompleted(true);
+        }
+    }
+
+    @Override
+    public void onLoadError(@NonNull Throwable throwable, boolean isFirstPage) {
+        Log.e(TAG, "Could not load live streams", throwable);
+        if (isFirstPage) {
+            if (getAdapter() == null || getAdapter().getItemCount() == 0) {
+                showMessage(R.string.general_error);
+            }
+            onRefreshCompleted(false);
+        }
+    }
+}
@@ -1,19 +1,47 @@
 package com.nidoham.openstream.fragments.list;
 
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.fragment.app.Fragment;
 
+import com.nidoham.openstream.R;
+import com.nidoham.openstream.adapters.DisplayItem;
+import com.nidoham.openstream.database.SubscriptionStore;
 import com.nidoham.openstream.databinding.FragmentSubscriptionBinding;
+import com.nidoham.openstream.feed.FeedUpdateEngine;
+import com.nidoham.openstream.feed.SubscriptionFeedPagingSource;
+import com.nidoham.openstream.paging.Pager;
 
-public class SubscriptionFragment extends Fragment {
+import org.schabi.newpipe.extractor.stream.StreamInfoItem;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/**
+ * Shows the latest streams of all subscribed channels, newest first, as stored in
+ * {@link SubscriptionStore}.
+ * <br>
+ * Every time the tab is resumed, the feeds of the channels that are stale are updated in the
+ * background by {@link FeedUpdateEngine}, and the list is reloaded from the database after each
+ * batch of channels has been saved, so that new streams appear progressively. Only the pages
+ * already loaded are reloaded, so the list never shrinks back to its first page.
+ */
+public class SubscriptionFragment extends InfoListFragment implements Pager.Listener {
+    private static final String TAG = SubscriptionFragment.class.getSimpleName();
 
     private FragmentSubscriptionBinding binding;
+    private FeedUpdateEngine feedUpdateEngine;
+    @Nullable
+    private Pager<StreamInfoItem> pager;
+    @Nullable
+    private Disposable feedUpdate;
 
     public SubscriptionFragment() {
         // Required empty public constructor
@@ -25,12 +53,76 @@ public class SubscriptionFragment extends Fragment {
                              @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
         binding = FragmentSubscriptionBinding.inflate(inflater, container, false);
+        setupList(binding.listContent);
+        getAdapter().setOnLoadMoreListener(() -> {
+            if (pager != null) {
+                pager.loadNextPage();
+            }
+        });
         return binding.getRoot();
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        final SubscriptionStore store = new SubscriptionStore(requireContext());
+        feedUpdateEngine = new FeedUpdateEngine(store);
+        pager = new Pager<>(requireContext(), new SubscriptionFeedPagingSource(store), this);
+
+        showLoading();
+        pager.loadNextPage();
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        updateFeed();
+    }
+
     @Override
     public void onDestroyView() {
+        if (feedUpdate != null) {
+            feedUpdate.dispose();
+            feedUpdate = null;
+        }
+        if (pager != null) {
+            pager.dispose();
+            pager = null;
+        }
         super.onDestroyView();
         binding = null; // Prevent memory leaks
     }
-}
\ No newline at end of file
+
+    private void updateFeed() {
+        if (feedUpdate != null && !feedUpdate.isDisposed()) {
+            return; // already updating
+        }
+
+        feedUpdate = feedUpdateEngine.update(false)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(progress -> reloadFeed(),
+                        throwable -> Log.e(TAG, "Could not update the feed", throwable));
+    }
+
+    private void reloadFeed() {
+        if (pager != null) {
+            // reloads what was already loaded, which is diffed against the current list, so only
+            // new streams are inserted and the scroll position is kept
+            pager.reloadLoadedPages();
+        }
+    }
+
+    @Override
+    public void onItemsLoaded(@NonNull List<DisplayItem> items, boolean hasMorePages) {
+        showItems(items, R.string.subscriptions_empty);
+    }
+
+    @Override
+    public void onLoadError(@NonNull Throwable throwable, boolean isFirstPage) {
+        Log.e(TAG, "Could not load the subscription feed", throwable);
+        if (isFirstPage) {
+            showMessage(R.string.general_error);
+        }
+    }
+}
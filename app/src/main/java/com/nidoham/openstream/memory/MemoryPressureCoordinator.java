@@ -0,0 +1,173 @@
+package com.nidoham.openstream.memory;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Releases memory from all of the app's in-memory caches when the system asks for it.
+ * <br>
+ * Caches register themselves as {@link Participant}s; the trim level passed to
+ * {@link #onTrimMemory(int)} is graded into a {@link Pressure} (see {@link #toPressure(int)}),
+ * which every participant maps to its own action, from trimming stale entries to dropping
+ * everything. Participants are also told whether the app is in the background, as the same
+ * pressure can arrive while the UI is in use (see {@link #isInBackground(int)}). How much each
+ * participant released is logged.
+ */
+public final class MemoryPressureCoordinator implements ComponentCallbacks2 {
+    private static final String TAG = MemoryPressureCoordinator.class.getSimpleName();
+
+    public enum Pressure {
+        /**
+         * Nothing to do.
+         */
+        NONE,
+        /**
+         * Drop what is stale or unlikely to be needed again, keeping what is in use.
+         */
+        MODERATE,
+        /**
+         * Drop whatever is cheap to recreate, e.g. bitmaps that are also on disk.
+         */
+        HIGH,
+        /**
+         * Drop everything that can be dropped, the process is about to be killed otherwise.
+         */
+        CRITICAL,
+    }
+
+    /**
+     * An in-memory cache that can release memory.
+     */
+    public interface Trimmable {
+        /**
+         * @param pressure     how much memory should be released, never {@link Pressure#NONE}
+         * @param inBackground whether the UI is hidden, i.e. whether state only needed by visible
+         *                     screens (e.g. across configuration changes) can be dropped too
+         * @return how much was released, in the unit the participant was registered with
+         */
+        long trim(@NonNull Pressure pressure, boolean inBackground);
+    }
+
+    private final List<Participant> participants = new ArrayList<>();
+
+    /**
+     * @param name      the name of the cache, used in the log
+     * @param unit      the unit of the amounts returned by {@code trimmable}, e.g. "bytes"
+     * @param trimmable the action to run on memory pressure
+     * @return this coordinator, for chaining
+     */
+    @NonNull
+    public MemoryPressureCoordinator register(@NonNull final String name,
+                                              @NonNull final String unit,
+                                              @NonNull final Trimmable trimmable) {
+        synchronized (participants) {
+            participants.add(new Participant(name, unit, trimmable));
+        }
+        return this;
+    }
+
+    /**
+     * Grades a trim level from {@link ComponentCallbacks2}. The levels are not ordered by
+     * severity (e.g. {@link #TRIM_MEMORY_RUNNING_CRITICAL} is lower than
+     * {@link #TRIM_MEMORY_UI_HIDDEN}), hence the explicit mapping.
+     *
+     * @param level a trim level as passed to {@link #onTrimMemory(int)}
+     * @return the corresponding pressure
+     */
+    @NonNull
+    public static Pressure toPressure(final int level) {
+        if (level >= TRIM_MEMORY_MODERATE) {
+            // the process is in the middle or at the end of the list of cached processes
+            return Pressure.CRITICAL;
+        } else if (level >= TRIM_MEMORY_BACKGROUND) {
+            return Pressure.HIGH;
+        } else if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // the app just went to the background and may well come back: memory is not short,
+            // so keep the caches the UI will need again (e.g. thumbnails), only trimming
+            return Pressure.MODERATE;
+        } else if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+            return Pressure.CRITICAL;
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            return Pressure.HIGH;
+        } else if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+            return Pressure.MODERATE;
+        }
+        return Pressure.NONE;
+    }
+
+    /**
+     * @param level a trim level as passed to {@link #onTrimMemory(int)}
+     * @return whether the level is only sent once the UI is hidden; the {@code RUNNING_*} levels
+     *         (e.g. {@link #TRIM_MEMORY_RUNNING_CRITICAL}, graded as {@link Pressure#CRITICAL})
+     *         arrive while the app is in the foreground
+     */
+    public static boolean isInBackground(final int level) {
+        return level >= TRIM_MEMORY_UI_HIDDEN;
+    }
+
+    /**
+     * Runs all participants for the pressure, logging what they released.
+     *
+     * @param pressure     the pressure to react to
+     * @param inBackground whether the UI is hidden, passed on to the participants
+     */
+    public void trim(@NonNull final Pressure pressure, final boolean inBackground) {
+        if (pressure == Pressure.NONE) {
+            return;
+        }
+
+        final List<Participant> snapshot;
+        synchronized (participants) {
+            snapshot = new ArrayList<>(participants);
+        }
+
+        final StringBuilder released = new StringBuilder("Released on ")
+                .append(pressure).append(" memory pressure")
+                .append(inBackground ? " in the background:" : ":");
+        for (final Participant participant : snapshot) {
+            try {
+                final long amount = participant.trimmable.trim(pressure, inBackground);
+                released.append(' ').append(participant.name).append('=')
+                        .append(amount).append(' ').append(participant.unit);
+            } catch (final RuntimeException e) {
+                // a cache failing to trim should not prevent the others from doing so
+                Log.e(TAG, "Could not trim " + participant.name, e);
+            }
+        }
+        Log.i(TAG, released.toString());
+    }
+
+    @Override
+    public void onTrimMemory(final int level) {
+        trim(toPressure(level), isInBackground(level));
+    }
+
+    @Override
+    public void onLowMemory() {
+        // sent once background processes have been killed, so the app is likely visible
+        trim(Pressure.CRITICAL, false);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull final Configuration newConfig) {
+        // not interested
+    }
+
+    private static final class Participant {
+        final String name;
+        final String unit;
+        final Trimmable trimmable;
+
+        Participant(final String name, final String unit, final Trimmable trimmable) {
+            this.name = name;
+            this.unit = unit;
+            this.trimmable = trimmable;
+        }
+    }
+}
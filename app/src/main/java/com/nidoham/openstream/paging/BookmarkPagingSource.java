@@ -0,0 +1,40 @@
+package com.nidoham.openstream.paging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nidoham.openstream.database.BookmarkStore;
+
+import org.schabi.newpipe.extractor.InfoItem;
+import org.schabi.newpipe.extractor.ListExtractor.InfoItemsPage;
+import org.schabi.newpipe.extractor.Page;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Pages through the bookmarks stored in {@link BookmarkStore}, optionally filtered by title.
+ */
+public final class BookmarkPagingSource implements PagingSource<InfoItem> {
+    private static final int PAGE_SIZE = 50;
+
+    @NonNull
+    private final BookmarkStore store;
+    @NonNull
+    private final String titlePrefix;
+
+    /**
+     * @param store       the store to read bookmarks from
+     * @param titlePrefix only show bookmarks whose title starts with this, or all if empty
+     */
+    public BookmarkPagingSource(@NonNull final BookmarkStore store,
+                                @NonNull final String titlePrefix) {
+        this.store = store;
+        this.titlePrefix = titlePrefix;
+    }
+
+    @NonNull
+    @Override
+    public Single<InfoItemsPage<InfoItem>> load(@Nullable final Page page) {
+        return Single.fromCallable(() -> store.getPage(titlePrefix, page, PAGE_SIZE));
+    }
+}
@@ -0,0 +1,115 @@
+package com.nidoham.openstream.paging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.schabi.newpipe.extractor.Info;
+import org.schabi.newpipe.extractor.ListExtractor.InfoItemsPage;
+import org.schabi.newpipe.extractor.NewPipe;
+import org.schabi.newpipe.extractor.Page;
+import org.schabi.newpipe.extractor.exceptions.ExtractionException;
+import org.schabi.newpipe.extractor.kiosk.KioskInfo;
+import org.schabi.newpipe.extractor.kiosk.KioskList;
+import org.schabi.newpipe.extractor.stream.StreamInfoItem;
+import org.schabi.newpipe.util.ExtractorHelper;
+import org.schabi.newpipe.util.InfoCache;
+
+import java.util.Locale;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Pages through a kiosk (e.g. trending), using {@link ExtractorHelper#getKioskInfo} for the first
+ * page and {@link ExtractorHelper#getMoreKioskItems} for the following ones. The first page is
+ * taken from {@link InfoCache} when possible, both synchronously through
+ * {@link #peekFirstPage()} and when loading.
+ */
+public final class KioskPagingSource implements PagingSource<StreamInfoItem> {
+    private final int serviceId;
+    @NonNull
+    private final String url;
+    private final boolean forceLoad;
+
+    /**
+     * @param serviceId the service the kiosk belongs to
+     * @param url       the url of the kiosk
+     * @param forceLoad whether to skip the cache and always load the first page from the network
+     */
+    public KioskPagingSource(final int serviceId, @NonNull final String url,
+                             final boolean forceLoad) {
+        this.serviceId = serviceId;
+        this.url = url;
+        this.forceLoad = forceLoad;
+    }
+
+    /**
+     * @param serviceId the service to get the default kiosk of
+     * @return the url of the default kiosk of the service (usually trending)
+     * @throws ExtractionException if the service has no kiosks or the url can not be built
+     */
+    @NonNull
+    public static String getDefaultKioskUrl(final int serviceId) throws ExtractionException {
+        final KioskList kioskList = NewPipe.getService(serviceId).getKioskList();
+        return getKioskUrl(kioskList, kioskList.getDefaultKioskId());
+    }
+
+    /**
+     * @param serviceId the service to get the live kiosk of
+     * @return the url of the kiosk of the service listing live streams, i.e. the first one whose
+     *         id contains "live", or of the default kiosk if there is no such kiosk
+     * @throws ExtractionException if the service has no kiosks or the url can not be built
+     */
+    @NonNull
+    public static String getLiveKioskUrl(final int serviceId) throws ExtractionException {
+        final KioskList kioskList = NewPipe.getService(serviceId).getKioskList();
+        for (final String kioskId : kioskList.getAvailableKiosks()) {
+            if (kioskId.toLowerCase(Locale.ROOT).contains("live")) {
+                return getKioskUrl(kioskList, kioskId);
+            }
+        }
+        return getKioskUrl(kioskList, kioskList.getDefaultKioskId());
+    }
+
+    @NonNull
+    static String getKioskUrl(@NonNull final KioskList kioskList, @NonNull final String kioskId)
+            throws ExtractionException {
+        return kioskList.getListLinkHandlerFactoryByType(kioskId).fromId(kioskId).getUrl();
+    }
+
+    @NonNull
+    @Override
+    public Single<InfoItemsPage<StreamInfoItem>> load(@Nullable final Page page) {
+        if (page == null) {
+            return ExtractorHelper.getKioskInfo(serviceId, url, forceLoad)
+                    .map(KioskPagingSource::toFirstPage);
+        } else {
+            return ExtractorHelper.getMoreKioskItems(serviceId, url, page);
+        }
+    }
+
+    @Nullable
+    @Override
+    public InfoItemsPage<StreamInfoItem> peekFirstPage() {
+        if (forceLoad) {
+            return null;
+        }
+
+        final Info cached = InfoCache.getInstance()
+                .peekFromKey(serviceId, url, InfoCache.Type.KIOSK);
+        return cached instanceof KioskInfo ? toFirstPage((KioskInfo) cached) : null;
+    }
+
+    public int getServiceId() {
+        return serviceId;
+    }
+
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    @NonNull
+    private static InfoItemsPage<StreamInfoItem> toFirstPage(@NonNull final KioskInfo info) {
+        return new InfoItemsPage<>(info.getRelatedItems(), info.getNextPage(), info.getErrors());
+    }
+}
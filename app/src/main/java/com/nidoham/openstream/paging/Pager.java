@@ -0,0 +1,308 @@
+package com.nidoham.openstream.paging;
+
+import android.content.Context;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nidoham.openstream.adapters.DisplayItem;
+
+import org.schabi.newpipe.extractor.Image;
+import org.schabi.newpipe.extractor.InfoItem;
+import org.schabi.newpipe.extractor.ListExtractor.InfoItemsPage;
+import org.schabi.newpipe.extractor.Page;
+import org.schabi.newpipe.util.image.PicassoHelper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Accumulates the pages loaded from a {@link PagingSource} into a single list of
+ * {@link DisplayItem}s, loading at most one page at a time.
+ * <br>
+ * Pages are loaded and converted to {@link DisplayItem}s (i.e. all of their texts are formatted)
+ * on a background thread, and items already present in the list are dropped, since services
+ * sometimes return the same item on multiple pages. After every page, the thumbnails of the
+ * newly added items are preloaded, as they are the ones the user is going to scroll to.
+ * <br>
+ * If the source has the first page in memory (see {@link PagingSource#peekFirstPage()}), it is
+ * shown synchronously, so that the list has content in the same frame it becomes visible.
+ * <br>
+ * The first page can be reloaded with {@link #refreshFirstPage(PagingSource)} without losing the
+ * pages loaded after it, so that periodic refreshes do not take the user back to the top. If the
+ * source supports it, all of the loaded pages can instead be reloaded at once with
+ * {@link #reloadLoadedPages()}.
+ *
+ * @param <I> the type of the items provided by the source
+ */
+public final class Pager<I extends InfoItem> {
+
+    public interface Listener {
+        /**
+         * @param items        all of the items loaded so far, as an immutable snapshot
+         * @param hasMorePages whether {@link #loadNextPage()} would load anything else
+         */
+        void onItemsLoaded(@NonNull List<DisplayItem> items, boolean hasMorePages);
+
+        /**
+         * @param throwable   the error which occurred while loading a page
+         * @param isFirstPage whether the page that could not be loaded is the first one
+         */
+        void onLoadError(@NonNull Throwable throwable, boolean isFirstPage);
+    }
+
+    @NonNull
+    private final Context context;
+    @NonNull
+    private final PagingSource<I> source;
+    @NonNull
+    private final Listener listener;
+
+    private final List<DisplayItem> items = new ArrayList<>();
+    private final Set<Long> loadedIds = new HashSet<>();
+    private final Set<Long> firstPageIds = new HashSet<>();
+    @Nullable
+    private Page nextPage;
+    private boolean firstPageLoaded = false;
+    private int loadedPageCount = 0;
+    @Nullable
+    private Disposable loading;
+
+    public Pager(@NonNull final Context context,
+                 @NonNull final PagingSource<I> source,
+                 @NonNull final Listener listener) {
+        this.context = context.getApplicationContext();
+        this.source = source;
+        this.listener = listener;
+    }
+
+    /**
+     * Loads the first page if nothing was loaded yet, otherwise the next one. Does nothing if a
+     * page is already being loaded or if there are no more pages, so it is safe to call this
+     * every time the user gets close to the end of the list.
+     */
+    @MainThread
+    public void loadNextPage() {
+        if (isLoading() || !hasMorePages()) {
+            return;
+        }
+
+        if (!firstPageLoaded) {
+            final InfoItemsPage<I> cached = source.peekFirstPage();
+            if (cached != null) {
+                onPageLoaded(toLoadedPage(cached));
+                return;
+            }
+        }
+
+        loading = source.load(nextPage)
+                .map(this::toLoadedPage)
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::onPageLoaded, throwable -> {
+                    loading = null;
+                    listener.onLoadError(throwable, !firstPageLoaded);
+                });
+    }
+
+    /**
+     * Loads the first page again from {@code refreshSource} (e.g. a source skipping the cache)
+     * and replaces the items of the previous first page with it, keeping all of the items loaded
+     * from the following pages. Stops loading the next page, if it was being loaded, as it will be
+     * requested again once the user gets close to the end of the list.
+     *
+     * @param refreshSource the source to load the first page from
+     */
+    @MainThread
+    public void refreshFirstPage(@NonNull final PagingSource<I> refreshSource) {
+        dispose();
+        loading = refreshSource.load(null)
+                .map(this::toLoadedPage)
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::onFirstPageRefreshed, throwable -> {
+                    loading = null;
+                    listener.onLoadError(throwable, true);
+                });
+    }
+
+    /**
+     * Reloads all of the pages loaded so far at once (see {@link PagingSource#reloadBefore}),
+     * replacing their items, so that changes anywhere in them show up without the list shrinking
+     * back to its first page. Falls back to {@link #reset()} and loading the first page if the
+     * source can not do that.
+     */
+    @MainThread
+    public void reloadLoadedPages() {
+        final Single<InfoItemsPage<I>> reload = firstPageLoaded
+                ? source.reloadBefore(nextPage) : null;
+        if (reload == null) {
+            reset();
+            loadNextPage();
+            return;
+        }
+
+        dispose();
+        loading = reload
+                .map(this::toLoadedPage)
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::onLoadedPagesReloaded, throwable -> {
+                    loading = null;
+                    listener.onLoadError(throwable, false);
+                });
+    }
+
+    public boolean isLoading() {
+        return loading != null && !loading.isDisposed();
+    }
+
+    public boolean hasMorePages() {
+        return !firstPageLoaded || Page.isValid(nextPage);
+    }
+
+    /**
+     * @return an immutable snapshot of the items loaded so far
+     */
+    @NonNull
+    public List<DisplayItem> getItems() {
+        return List.copyOf(items);
+    }
+
+    /**
+     * Stops loading and forgets all loaded items, so that the next {@link #loadNextPage()} loads
+     * the first page again.
+     */
+    @MainThread
+    public void reset() {
+        dispose();
+        items.clear();
+        loadedIds.clear();
+        firstPageIds.clear();
+        nextPage = null;
+        firstPageLoaded = false;
+        loadedPageCount = 0;
+    }
+
+    /**
+     * Stops loading the current page, if any. Has to be called when the list is destroyed.
+     */
+    @MainThread
+    public void dispose() {
+        if (loading != null) {
+            loading.dispose();
+            loading = null;
+        }
+    }
+
+    private void onPageLoaded(@NonNull final LoadedPage page) {
+        loading = null;
+        final boolean isFirstPage = !firstPageLoaded;
+        firstPageLoaded = true;
+        nextPage = page.nextPage;
+        loadedPageCount++;
+
+        for (final DisplayItem item : page.items) {
+            if (loadedIds.add(item.getStableId())) {
+                items.add(item);
+                if (isFirstPage) {
+                    firstPageIds.add(item.getStableId());
+                }
+            }
+        }
+
+        listener.onItemsLoaded(getItems(), hasMorePages());
+        PicassoHelper.preloadImages(page.thumbnails);
+    }
+
+    private void onFirstPageRefreshed(@NonNull final LoadedPage page) {
+        loading = null;
+        final List<DisplayItem> following = new ArrayList<>(items.size());
+        for (final DisplayItem item : items) {
+            if (!firstPageIds.contains(item.getStableId())) {
+                following.add(item);
+            }
+        }
+
+        items.clear();
+        loadedIds.clear();
+        firstPageIds.clear();
+        for (final DisplayItem item : page.items) {
+            if (loadedIds.add(item.getStableId())) {
+                items.add(item);
+                firstPageIds.add(item.getStableId());
+            }
+        }
+        for (final DisplayItem item : following) {
+            if (loadedIds.add(item.getStableId())) {
+                items.add(item);
+            }
+        }
+
+        // the following pages are still those of the previous first page, so continue from them
+        if (loadedPageCount <= 1) {
+            nextPage = page.nextPage;
+            loadedPageCount = 1;
+        }
+        firstPageLoaded = true;
+
+        listener.onItemsLoaded(getItems(), hasMorePages());
+        PicassoHelper.preloadImages(page.thumbnails);
+    }
+
+    private void onLoadedPagesReloaded(@NonNull final LoadedPage page) {
+        loading = null;
+        items.clear();
+        loadedIds.clear();
+        firstPageIds.clear();
+        for (final DisplayItem item : page.items) {
+            if (loadedIds.add(item.getStableId())) {
+                items.add(item);
+            }
+        }
+
+        listener.onItemsLoaded(getItems(), hasMorePages());
+        PicassoHelper.preloadImages(page.thumbnails);
+    }
+
+    @NonNull
+    private LoadedPage toLoadedPage(@NonNull final InfoItemsPage<I> page) {
+        return new LoadedPage(page.getNextPage(),
+                DisplayItem.fromInfoItems(context, page.getItems()),
+                collectThumbnails(page.getItems()));
+    }
+
+    @NonNull
+    private static List<List<Image>> collectThumbnails(@NonNull final List<? extends InfoItem> items) {
+        final List<List<Image>> thumbnails = new ArrayList<>(items.size());
+        for (final InfoItem item : items) {
+            thumbnails.add(item.getThumbnails());
+        }
+        return thumbnails;
+    }
+
+    private static final class LoadedPage {
+        @Nullable
+        final Page nextPage;
+        @NonNull
+        final List<DisplayItem> items;
+        @NonNull
+        final List<List<Image>> thumbnails;
+
+        LoadedPage(@Nullable final Page nextPage,
+                   @NonNull final List<DisplayItem> items,
+                   @NonNull final List<List<Image>> thumbnails) {
+            this.nextPage = nextPage;
+            this.items = items;
+            this.thumbnails = thumbnails;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.nidoham.openstream.paging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.schabi.newpipe.extractor.InfoItem;
+import org.schabi.newpipe.extractor.ListExtractor.InfoItemsPage;
+import org.schabi.newpipe.extractor.Page;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Loads the pages of a list of {@link InfoItem}s, each page being identified by the extractor
+ * {@link Page} returned along with the previous one.
+ *
+ * @param <I> the type of the items in the list
+ */
+public interface PagingSource<I extends InfoItem> {
+    /**
+     * @param page the page to load, or {@code null} to load the first page
+     * @return the items of the page, along with the key of the next page (if any)
+     */
+    @NonNull
+    Single<InfoItemsPage<I>> load(@Nullable Page page);
+
+    /**
+     * @return the first page, if it is available in memory and can thus be shown synchronously,
+     *         otherwise {@code null}; must be fast, as it is called on the main thread
+     */
+    @Nullable
+    default InfoItemsPage<I> peekFirstPage() {
+        return null;
+    }
+
+    /**
+     * Loads all of the items before {@code nextPage} at once, i.e. the pages loaded so far as they
+     * are now, so that they can be reloaded without losing the position in the list. Only sources
+     * whose pages are identified by the last item of the previous page (rather than by an offset)
+     * can do this.
+     *
+     * @param nextPage the page following those loaded so far, or {@code null} if all of them were
+     *                 loaded
+     * @return the items, along with {@code nextPage}, or {@code null} if this is not supported
+     */
+    @Nullable
+    default Single<InfoItemsPage<I>> reloadBefore(@Nullable Page nextPage) {
+        return null;
+    }
+}
@@ -0,0 +1,96 @@
+package com.nidoham.openstream.search;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.preference.PreferenceManager;
+
+import com.nidoham.openstream.R;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The queries the user searched for, most recent first, stored in the shared preferences.
+ * <br>
+ * The history is read from the preferences only once and then kept in memory, so that it can be
+ * matched against the current query on every keystroke. All methods are thread-safe.
+ */
+public final class SearchHistory {
+    private static final int MAX_ENTRIES = 50;
+    private static final String SEPARATOR = "\n";
+
+    private final SharedPreferences prefs;
+    private final String prefKey;
+    private List<String> entries;
+
+    public SearchHistory(@NonNull final Context context) {
+        prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        prefKey = context.getString(R.string.search_history_key);
+    }
+
+    /**
+     * Moves the query to the top of the history, adding it if not yet present.
+     *
+     * @param query the query the user searched for
+     */
+    public synchronized void add(@NonNull final String query) {
+        final String sanitized = query.replace(SEPARATOR, " ").trim();
+        if (sanitized.isEmpty()) {
+            return;
+        }
+
+        final List<String> current = getEntries();
+        current.removeIf(entry -> entry.equalsIgnoreCase(sanitized));
+        current.add(0, sanitized);
+        while (current.size() > MAX_ENTRIES) {
+            current.remove(current.size() - 1);
+        }
+        save();
+    }
+
+    public synchronized void remove(@NonNull final String query) {
+        if (getEntries().remove(query)) {
+            save();
+        }
+    }
+
+    /**
+     * @param query the current query; an empty query matches every entry
+     * @param limit the maximum number of entries to return
+     * @return the most recent history entries starting with {@code query}, ignoring case
+     */
+    @NonNull
+    public synchronized List<String> matching(@NonNull final String query, final int limit) {
+        final String prefix = query.toLowerCase(Locale.ROOT);
+        final List<String> result = new ArrayList<>();
+        for (final String entry : getEntries()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (entry.toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    private List<String> getEntries() {
+        if (entries == null) {
+            final String stored = prefs.getString(prefKey, "");
+            entries = TextUtils.isEmpty(stored)
+                    ? new ArrayList<>()
+                    : new ArrayList<>(Arrays.asList(stored.split(SEPARATOR)));
+        }
+        return entries;
+    }
+
+    private void save() {
+        prefs.edit().putString(prefKey, TextUtils.join(SEPARATOR, entries)).apply();
+    }
+}
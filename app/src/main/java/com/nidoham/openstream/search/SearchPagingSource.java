@@ -0,0 +1,85 @@
+package com.nidoham.openstream.search;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nidoham.openstream.paging.PagingSource;
+
+import org.schabi.newpipe.extractor.InfoItem;
+import org.schabi.newpipe.extractor.ListExtractor.InfoItemsPage;
+import org.schabi.newpipe.extractor.Page;
+import org.schabi.newpipe.util.ExtractorHelper;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Pages through the search results of a query, using {@link ExtractorHelper#searchFor} for the
+ * first page and {@link ExtractorHelper#getMoreSearchItems} for the following ones.
+ */
+public final class SearchPagingSource implements PagingSource<InfoItem> {
+    private final int serviceId;
+    @NonNull
+    private final String query;
+    @NonNull
+    private final List<String> contentFilter;
+    @NonNull
+    private final String sortFilter;
+
+    @Nullable
+    private volatile String searchSuggestion;
+    private volatile boolean correctedSearch;
+
+    public SearchPagingSource(final int serviceId, @NonNull final String query) {
+        this(serviceId, query, List.of(), "");
+    }
+
+    public SearchPagingSource(final int serviceId,
+                              @NonNull final String query,
+                              @NonNull final List<String> contentFilter,
+                              @NonNull final String sortFilter) {
+        this.serviceId = serviceId;
+        this.query = query;
+        this.contentFilter = contentFilter;
+        this.sortFilter = sortFilter;
+    }
+
+    @NonNull
+    @Override
+    public Single<InfoItemsPage<InfoItem>> load(@Nullable final Page page) {
+        if (page == null) {
+            return ExtractorHelper.searchFor(serviceId, query, contentFilter, sortFilter)
+                    .map(info -> {
+                        searchSuggestion = info.getSearchSuggestion();
+                        correctedSearch = info.isCorrectedSearch();
+                        return new InfoItemsPage<>(
+                                info.getRelatedItems(), info.getNextPage(), info.getErrors());
+                    });
+        } else {
+            return ExtractorHelper.getMoreSearchItems(
+                    serviceId, query, contentFilter, sortFilter, page);
+        }
+    }
+
+    @NonNull
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * @return the spelling suggestion provided by the service along with the first page, if any
+     */
+    @Nullable
+    public String getSearchSuggestion() {
+        return searchSuggestion;
+    }
+
+    /**
+     * @return whether the service showed results for {@link #getSearchSuggestion()} instead of
+     *         for the original query
+     */
+    public boolean isCorrectedSearch() {
+        return correctedSearch;
+    }
+}
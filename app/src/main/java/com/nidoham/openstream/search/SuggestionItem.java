@@ -0,0 +1,52 @@
+package com.nidoham.openstream.search;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+/**
+ * A single search suggestion, either coming from the user's local search history or from the
+ * service's suggestion extractor.
+ */
+public final class SuggestionItem {
+    @NonNull
+    private final String query;
+    private final boolean fromHistory;
+
+    public SuggestionItem(@NonNull final String query, final boolean fromHistory) {
+        this.query = query;
+        this.fromHistory = fromHistory;
+    }
+
+    @NonNull
+    public String getQuery() {
+        return query;
+    }
+
+    public boolean isFromHistory() {
+        return fromHistory;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SuggestionItem)) {
+            return false;
+        }
+        final SuggestionItem that = (SuggestionItem) o;
+        return fromHistory == that.fromHistory && query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(query, fromHistory);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "SuggestionItem{query=" + query + ", fromHistory=" + fromHistory + "}";
+    }
+}
@@ -0,0 +1,92 @@
+package com.nidoham.openstream.search;
+
+import androidx.annotation.NonNull;
+import androidx.collection.LruCache;
+
+import org.schabi.newpipe.util.ExtractorHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Provides the suggestions for a (possibly partial) search query, merging the matching local
+ * search history entries with the suggestions coming from the service.
+ * <br>
+ * Service suggestions are kept in an LRU cache keyed by query, so that e.g. deleting a character
+ * shows the previous suggestions again without any network request.
+ */
+public final class SuggestionRepository {
+    private static final int MAX_CACHED_QUERIES = 64;
+    // how many history entries to show above the service suggestions, or alone if query is empty
+    private static final int MAX_HISTORY_SUGGESTIONS = 3;
+    private static final int MAX_HISTORY_ONLY_SUGGESTIONS = 25;
+
+    private final int serviceId;
+    @NonNull
+    private final SearchHistory searchHistory;
+    private final LruCache<String, List<String>> remoteSuggestions =
+            new LruCache<>(MAX_CACHED_QUERIES);
+
+    public SuggestionRepository(final int serviceId, @NonNull final SearchHistory searchHistory) {
+        this.serviceId = serviceId;
+        this.searchHistory = searchHistory;
+    }
+
+    /**
+     * @param query the trimmed query
+     * @return whether suggestions for the query can be provided without a network request
+     */
+    public boolean isAvailableLocally(@NonNull final String query) {
+        return query.isEmpty() || remoteSuggestions.get(query) != null;
+    }
+
+    /**
+     * @param query the trimmed query
+     * @return the history entries matching the query, followed by the service suggestions (from
+     *         the cache if possible); only the history entries are returned if the query is empty
+     *         or if loading the service suggestions fails
+     */
+    @NonNull
+    public Single<List<SuggestionItem>> suggestionsFor(@NonNull final String query) {
+        if (query.isEmpty()) {
+            return Single.fromCallable(() -> merge(
+                    searchHistory.matching(query, MAX_HISTORY_ONLY_SUGGESTIONS), List.of()))
+                    .subscribeOn(Schedulers.io());
+        }
+
+        final List<String> cached = remoteSuggestions.get(query);
+        final Single<List<String>> remote;
+        if (cached != null) {
+            remote = Single.just(cached);
+        } else {
+            remote = ExtractorHelper.suggestionsFor(serviceId, query)
+                    .doOnSuccess(suggestions -> remoteSuggestions.put(query, suggestions));
+        }
+
+        return remote
+                .map(suggestions -> merge(
+                        searchHistory.matching(query, MAX_HISTORY_SUGGESTIONS), suggestions))
+                // keep showing the history if e.g. there is no network connection
+                .onErrorReturn(throwable -> merge(
+                        searchHistory.matching(query, MAX_HISTORY_SUGGESTIONS), List.of()))
+                .subscribeOn(Schedulers.io());
+    }
+
+    @NonNull
+    private static List<SuggestionItem> merge(@NonNull final List<String> history,
+                                              @NonNull final List<String> remote) {
+        final List<SuggestionItem> result = new ArrayList<>(history.size() + remote.size());
+        for (final String entry : history) {
+            result.add(new SuggestionItem(entry, true));
+        }
+        for (final String suggestion : remote) {
+            if (history.stream().noneMatch(suggestion::equalsIgnoreCase)) {
+                result.add(new SuggestionItem(suggestion, false));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,192 @@
+package com.nidoham.openstream.startup;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A small dependency graph of application initialization steps.
+ * <br>
+ * Steps are added in dependency order (a step can only depend on steps added before it, so the
+ * graph can never contain cycles) and are then run according to their {@link Mode}: steps on the
+ * main thread run synchronously in {@link #start(Executor)}, background steps run in parallel as
+ * soon as their dependencies have completed, and deferred steps run on the main thread once it
+ * becomes idle for the first time, i.e. after the first frame has been drawn.
+ * <br>
+ * Every step is timed and traced through {@link StartupTrace}.
+ */
+public final class StartupGraph {
+    private static final String TAG = StartupGraph.class.getSimpleName();
+
+    public enum Mode {
+        /**
+         * Runs synchronously on the main thread, for steps that have to be completed before the
+         * first activity is created. Can only depend on other {@link #MAIN_THREAD} steps.
+         */
+        MAIN_THREAD,
+        /**
+         * Runs on a background thread, in parallel with other independent steps.
+         */
+        BACKGROUND,
+        /**
+         * Runs on the main thread after the first frame, for steps that are not needed to show
+         * the UI. These are not waited for by {@link #await()}.
+         */
+        DEFERRED,
+    }
+
+    private final StartupTrace trace;
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+    private CompletableFuture<Void> criticalSteps;
+
+    public StartupGraph(@NonNull final StartupTrace trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * @param name         a unique name for the step, used for dependencies and in the trace
+     * @param mode         where and when to run the step
+     * @param action       the initialization to perform
+     * @param dependencies the names of the steps that have to complete before this one starts
+     * @return this graph, for chaining
+     */
+    @NonNull
+    public StartupGraph add(@NonNull final String name,
+                            @NonNull final Mode mode,
+                            @NonNull final Runnable action,
+                            @NonNull final String... dependencies) {
+        if (steps.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate startup step: " + name);
+        }
+        for (final String dependency : dependencies) {
+            final Step dependencyStep = steps.get(dependency);
+            if (dependencyStep == null) {
+                throw new IllegalArgumentException("Startup step " + name
+                        + " depends on unknown (or later) step " + dependency);
+            } else if (mode == Mode.MAIN_THREAD && dependencyStep.mode != Mode.MAIN_THREAD) {
+                throw new IllegalArgumentException("Main thread startup step " + name
+                        + " can not depend on " + dependencyStep.mode + " step " + dependency);
+            }
+        }
+
+        steps.put(name, new Step(name, mode, action, dependencies));
+        return this;
+    }
+
+    /**
+     * Starts running all of the steps. Must be called exactly once.
+     *
+     * @param backgroundExecutor the executor on which to run {@link Mode#BACKGROUND} steps
+     * @return a future completing when all non-deferred steps have completed
+     */
+    @MainThread
+    @NonNull
+    public CompletableFuture<Void> start(@NonNull final Executor backgroundExecutor) {
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        final Executor mainExecutor = mainHandler::post;
+
+        final CompletableFuture<Void> firstIdle = new CompletableFuture<>();
+        Looper.myQueue().addIdleHandler(() -> {
+            firstIdle.complete(null);
+            return false; // only once
+        });
+
+        final List<CompletableFuture<Void>> critical = new ArrayList<>();
+        final List<CompletableFuture<Void>> all = new ArrayList<>();
+        for (final Step step : steps.values()) {
+            final CompletableFuture<?>[] dependencies = new CompletableFuture<?>[
+                    step.dependencies.length];
+            for (int i = 0; i < dependencies.length; ++i) {
+                dependencies[i] = steps.get(step.dependencies[i]).future;
+            }
+
+            switch (step.mode) {
+                case MAIN_THREAD:
+                    // dependencies are main thread steps too, so they have already completed, and
+                    // failures are thrown right away, as if the step was run in onCreate() itself
+                    run(step);
+                    step.future = CompletableFuture.completedFuture(null);
+                    break;
+                case BACKGROUND:
+                    step.future = CompletableFuture.allOf(dependencies)
+                            .thenRunAsync(() -> run(step), backgroundExecutor);
+                    break;
+                case DEFERRED:
+                default:
+                    step.future = CompletableFuture.allOf(dependencies)
+                            .thenCombine(firstIdle, (a, b) -> null)
+                            .thenRunAsync(() -> run(step), mainExecutor);
+                    break;
+            }
+
+            all.add(step.future);
+            if (step.mode != Mode.DEFERRED) {
+                critical.add(step.future);
+            }
+        }
+
+        criticalSteps = CompletableFuture.allOf(critical.toArray(new CompletableFuture<?>[0]));
+        CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((result, throwable) -> Log.i(TAG, trace.dump()));
+        return criticalSteps;
+    }
+
+    /**
+     * Blocks until all of the non-deferred steps have completed, which is immediate if they are
+     * already done. Must not be called on the main thread, which would wait for every background
+     * step and defeat running them in parallel: what the UI needs synchronously belongs in a
+     * {@link Mode#MAIN_THREAD} step, and background consumers should rather wait for the single
+     * component they need (e.g. {@code ExtractorBootstrap.awaitReady()}).
+     *
+     * @throws RuntimeException if any of the non-deferred steps failed
+     */
+    @WorkerThread
+    public void await() {
+        if (criticalSteps == null) {
+            throw new IllegalStateException("StartupGraph has not been started");
+        }
+
+        try {
+            criticalSteps.join();
+        } catch (final CompletionException e) {
+            throw new RuntimeException("Application startup failed", e.getCause());
+        }
+    }
+
+    private void run(@NonNull final Step step) {
+        try {
+            trace.run(step.name, step.action);
+        } catch (final RuntimeException e) {
+            Log.e(TAG, "Startup step " + step.name + " failed", e);
+            throw e;
+        }
+    }
+
+    private static final class Step {
+        final String name;
+        final Mode mode;
+        final Runnable action;
+        final String[] dependencies;
+        CompletableFuture<Void> future;
+
+        Step(final String name, final Mode mode, final Runnable action,
+             final String[] dependencies) {
+            this.name = name;
+            this.mode = mode;
+            this.action = action;
+            this.dependencies = dependencies;
+        }
+    }
+}
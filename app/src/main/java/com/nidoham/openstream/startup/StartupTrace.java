@@ -0,0 +1,107 @@
+package com.nidoham.openstream.startup;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records how long each startup step took, on which thread, and when it started relative to the
+ * process start. Every step is also wrapped in an {@link Trace} section named
+ * {@code startup:<step>}, so that it shows up in Perfetto/systrace captures.
+ */
+public final class StartupTrace {
+    private static final String SECTION_PREFIX = "startup:";
+
+    private final long processStartMillis = Process.getStartElapsedRealtime();
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Runs the action on the current thread, recording its timing under the provided name.
+     *
+     * @param name   the name of the step
+     * @param action the step to run
+     */
+    public void run(@NonNull final String name, @NonNull final Runnable action) {
+        final long startNanos = SystemClock.elapsedRealtimeNanos();
+        Trace.beginSection(SECTION_PREFIX + name);
+        try {
+            action.run();
+        } finally {
+            Trace.endSection();
+            final long endNanos = SystemClock.elapsedRealtimeNanos();
+            synchronized (entries) {
+                entries.add(new Entry(name, Thread.currentThread().getName(),
+                        startNanos / 1_000_000 - processStartMillis,
+                        (endNanos - startNanos) / 1_000_000));
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of the steps recorded so far, in order of completion
+     */
+    @NonNull
+    public List<Entry> getEntries() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+
+    /**
+     * @return a human readable table of the steps recorded so far, e.g. to be logged
+     */
+    @NonNull
+    public String dump() {
+        final StringBuilder builder = new StringBuilder("Startup trace (ms since process start):");
+        for (final Entry entry : getEntries()) {
+            builder.append(String.format(Locale.ROOT, "%n  %-24s start=%5d duration=%5d [%s]",
+                    entry.getName(), entry.getStartMillis(), entry.getDurationMillis(),
+                    entry.getThreadName()));
+        }
+        return builder.toString();
+    }
+
+    public static final class Entry {
+        @NonNull
+        private final String name;
+        @NonNull
+        private final String threadName;
+        private final long startMillis;
+        private final long durationMillis;
+
+        Entry(@NonNull final String name, @NonNull final String threadName,
+              final long startMillis, final long durationMillis) {
+            this.name = name;
+            this.threadName = threadName;
+            this.startMillis = startMillis;
+            this.durationMillis = durationMillis;
+        }
+
+        @NonNull
+        public String getName() {
+            return name;
+        }
+
+        @NonNull
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * @return when the step started, in milliseconds since the process was started
+         */
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+    }
+}
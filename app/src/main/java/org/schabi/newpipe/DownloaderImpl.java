@@ -11,18 +11,27 @@ import org.schabi.newpipe.extractor.downloader.Downloader;
 import org.schabi.newpipe.extractor.downloader.Request;
 import org.schabi.newpipe.extractor.downloader.Response;
 import org.schabi.newpipe.extractor.exceptions.ReCaptchaException;
+import org.schabi.newpipe.util.CancellationScope;
 import org.schabi.newpipe.util.InfoCache;
+import org.schabi.newpipe.util.Tracer;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import okhttp3.Call;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
@@ -36,10 +45,26 @@ public final class DownloaderImpl extends Downloader {
             "youtube_restricted_mode_key";
     public static final String YOUTUBE_RESTRICTED_MODE_COOKIE = "PREF=f2=8000000";
     public static final String YOUTUBE_DOMAIN = "youtube.com";
+    /**
+     * How long requests wait for a pending reCAPTCHA challenge to be solved before failing.
+     */
+    private static final long RECAPTCHA_CHALLENGE_TIMEOUT_SECONDS = 120;
+    /**
+     * How often requests waiting for a reCAPTCHA challenge check whether their extraction was
+     * disposed in the meantime, see {@link CancellationScope}.
+     */
+    private static final long RECAPTCHA_CANCELLATION_CHECK_MILLIS = 250;
 
     private static DownloaderImpl instance;
     private final Map<String, String> mCookies;
     private final OkHttpClient client;
+    // the Cookie header values for YouTube and for any other url, see getCookies()
+    private volatile String youtubeCookies = "";
+    private volatile String otherCookies = "";
+    // the reCAPTCHA challenges waiting to be solved, by host
+    private final Map<String, ReCaptchaChallenge> pendingChallenges = new ConcurrentHashMap<>();
+    @Nullable
+    private volatile Consumer<String> onReCaptchaChallenge;
 
     private DownloaderImpl(final OkHttpClient.Builder builder) {
         this.client = builder
@@ -67,27 +92,159 @@ public final class DownloaderImpl extends Downloader {
     }
 
     public String getCookies(final String url) {
-        final String youtubeCookie = url.contains(YOUTUBE_DOMAIN)
-                ? getCookie(YOUTUBE_RESTRICTED_MODE_COOKIE_KEY) : null;
+        // the cookies only depend on whether the url is a YouTube one, so they are built in
+        // advance every time a cookie changes instead of on every request
+        return url.contains(YOUTUBE_DOMAIN) ? youtubeCookies : otherCookies;
+    }
+
+    public String getCookie(final String key) {
+        synchronized (mCookies) {
+            return mCookies.get(key);
+        }
+    }
+
+    public void setCookie(final String key, final String cookie) {
+        synchronized (mCookies) {
+            mCookies.put(key, cookie);
+            rebuildCookies();
+        }
+        if (ReCaptchaActivity.RECAPTCHA_COOKIES_KEY.equals(key)) {
+            // the cookies are now part of every request, so parked requests can be replayed
+            resolveReCaptchaChallenges(true);
+        }
+    }
 
+    public void removeCookie(final String key) {
+        synchronized (mCookies) {
+            mCookies.remove(key);
+            rebuildCookies();
+        }
+    }
+
+    private void rebuildCookies() {
+        final String recaptchaCookie = mCookies.get(ReCaptchaActivity.RECAPTCHA_COOKIES_KEY);
+        youtubeCookies = joinCookies(mCookies.get(YOUTUBE_RESTRICTED_MODE_COOKIE_KEY),
+                recaptchaCookie);
         // Recaptcha cookie is always added TODO: not sure if this is necessary
-        return Stream.of(youtubeCookie, getCookie(ReCaptchaActivity.RECAPTCHA_COOKIES_KEY))
+        otherCookies = joinCookies(null, recaptchaCookie);
+    }
+
+    @NonNull
+    private static String joinCookies(@Nullable final String youtubeCookie,
+                                      @Nullable final String recaptchaCookie) {
+        return Stream.of(youtubeCookie, recaptchaCookie)
                 .filter(Objects::nonNull)
                 .flatMap(cookies -> Arrays.stream(cookies.split("; *")))
                 .distinct()
                 .collect(Collectors.joining("; "));
     }
 
-    public String getCookie(final String key) {
-        return mCookies.get(key);
+    /*//////////////////////////////////////////////////////////////////////////
+    // reCAPTCHA challenges
+    //////////////////////////////////////////////////////////////////////////*/
+
+    /**
+     * @param listener called with the url of the blocked request whenever a host starts requiring
+     *                 a reCAPTCHA challenge to be solved, on the thread of that request; it is
+     *                 expected to let the user solve it, which ends up calling {@link
+     *                 #setCookie(String, String)} with {@link
+     *                 ReCaptchaActivity#RECAPTCHA_COOKIES_KEY}
+     */
+    public void setOnReCaptchaChallengeListener(@Nullable final Consumer<String> listener) {
+        onReCaptchaChallenge = listener;
     }
 
-    public void setCookie(final String key, final String cookie) {
-        mCookies.put(key, cookie);
+    /**
+     * @return whether requests are waiting for a reCAPTCHA challenge to be solved, i.e. whether
+     *         it is still worth showing it to the user
+     */
+    public boolean hasPendingReCaptchaChallenges() {
+        return !pendingChallenges.isEmpty();
     }
 
-    public void removeCookie(final String key) {
-        mCookies.remove(key);
+    /**
+     * Makes all requests waiting for a reCAPTCHA challenge fail, e.g. because the user closed
+     * the challenge without solving it.
+     */
+    public void abandonReCaptchaChallenges() {
+        resolveReCaptchaChallenges(false);
+    }
+
+    private void resolveReCaptchaChallenges(final boolean solved) {
+        final Iterator<ReCaptchaChallenge> iterator = pendingChallenges.values().iterator();
+        while (iterator.hasNext()) {
+            final ReCaptchaChallenge challenge = iterator.next();
+            iterator.remove();
+            challenge.resolve(solved);
+        }
+    }
+
+    /**
+     * Blocks while a reCAPTCHA challenge is pending for the host, so that requests are not fired
+     * (and answered with 429) in the meantime. Gives up as soon as the extraction the request
+     * belongs to is cancelled, instead of keeping its thread until the challenge times out.
+     *
+     * @throws ReCaptchaException    if the challenge is abandoned or not solved in time
+     * @throws InterruptedIOException if the extraction was cancelled or the thread interrupted
+     */
+    private void awaitReCaptchaChallenge(@NonNull final String host, @NonNull final String url)
+            throws ReCaptchaException, InterruptedIOException {
+        final ReCaptchaChallenge challenge = pendingChallenges.get(host);
+        if (challenge == null) {
+            return;
+        }
+
+        final CancellationScope scope = CancellationScope.current();
+        final long deadline = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(RECAPTCHA_CHALLENGE_TIMEOUT_SECONDS);
+        try {
+            while (!challenge.latch.await(RECAPTCHA_CANCELLATION_CHECK_MILLIS,
+                    TimeUnit.MILLISECONDS)) {
+                if (scope != null && scope.isCancelled()) {
+                    throw new InterruptedIOException(
+                            "Canceled while waiting for reCaptcha Challenge");
+                } else if (System.nanoTime() - deadline >= 0) {
+                    // let the next request trigger a new challenge
+                    pendingChallenges.remove(host, challenge);
+                    throw new ReCaptchaException("reCaptcha Challenge not solved in time", url);
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for reCaptcha Challenge");
+        }
+
+        if (!challenge.solved) {
+            throw new ReCaptchaException("reCaptcha Challenge requested", url);
+        }
+    }
+
+    /**
+     * Registers a pending challenge for the host, notifying the listener only if there was none.
+     */
+    private void requestReCaptchaChallenge(@NonNull final String host, @NonNull final String url) {
+        if (pendingChallenges.putIfAbsent(host, new ReCaptchaChallenge()) == null) {
+            final Consumer<String> listener = onReCaptchaChallenge;
+            if (listener != null) {
+                listener.accept(url);
+            }
+        }
+    }
+
+    @NonNull
+    private static String hostOf(@NonNull final String url) {
+        final HttpUrl httpUrl = HttpUrl.parse(url);
+        return httpUrl == null ? url : httpUrl.host();
+    }
+
+    private static final class ReCaptchaChallenge {
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile boolean solved = false;
+
+        void resolve(final boolean isSolved) {
+            solved = isSolved;
+            latch.countDown();
+        }
     }
 
     public void updateYoutubeRestrictedModeCookies(final Context context) {
@@ -105,7 +262,8 @@ public final class DownloaderImpl extends Downloader {
         } else {
             removeCookie(YOUTUBE_RESTRICTED_MODE_COOKIE_KEY);
         }
-        InfoCache.getInstance().clearCache();
+        // results are cached separately for each mode, so there is no need to clear the cache
+        InfoCache.getInstance().setRestrictedMode(youtubeRestrictedModeEnabled);
     }
 
     /**
@@ -125,10 +283,76 @@ public final class DownloaderImpl extends Downloader {
         }
     }
 
+    /**
+     * Executes the request, unless a reCAPTCHA challenge is pending for its host, in which case
+     * it first waits for the challenge to be solved. A request answered with 429 starts a
+     * challenge (if none is pending yet), waits for it in the same way, and is then replayed once
+     * with the new cookies.
+     */
     @Override
     public Response execute(@NonNull final Request request)
             throws IOException, ReCaptchaException {
-        final String httpMethod = request.httpMethod();
+        final String url = request.url();
+        final String host = hostOf(url);
+
+        final boolean traced = Tracer.beginSection("DownloaderImpl.execute");
+        try {
+            return execute(request, url, host);
+        } finally {
+            Tracer.endSection(traced);
+        }
+    }
+
+    @NonNull
+    private Response execute(@NonNull final Request request,
+                             @NonNull final String url,
+                             @NonNull final String host)
+            throws IOException, ReCaptchaException {
+        boolean replayed = false;
+        while (true) {
+            awaitReCaptchaChallenge(host, url);
+
+            // lets a disposed extraction abort the download, see ExtractorHelper
+            final Call call = client.newCall(buildRequest(request));
+            final CancellationScope scope = CancellationScope.current();
+            if (scope != null) {
+                scope.register(call);
+            }
+
+            try (okhttp3.Response response = call.execute()) {
+                if (response.code() == 429) {
+                    if (replayed) {
+                        throw new ReCaptchaException("reCaptcha Challenge requested", url);
+                    }
+                    requestReCaptchaChallenge(host, url);
+                    replayed = true;
+                    continue;
+                }
+
+                String responseBodyToReturn = null;
+                try (ResponseBody body = response.body()) {
+                    if (body != null) {
+                        responseBodyToReturn = body.string();
+                    }
+                }
+
+                final String latestUrl = response.request().url().toString();
+                return new Response(
+                        response.code(),
+                        response.message(),
+                        response.headers().toMultimap(),
+                        responseBodyToReturn,
+                        latestUrl);
+            } finally {
+                if (scope != null) {
+                    scope.unregister(call);
+                }
+            }
+        }
+    }
+
+    @NonNull
+    private okhttp3.Request buildRequest(@NonNull final Request request) {
         final String url = request.url();
         final Map<String, List<String>> headers = request.headers();
         final byte[] dataToSend = request.dataToSend();
@@ -139,10 +363,11 @@ public final class DownloaderImpl extends Downloader {
         }
 
         final okhttp3.Request.Builder requestBuilder = new okhttp3.Request.Builder()
-                .method(httpMethod, requestBody)
+                .method(request.httpMethod(), requestBody)
                 .url(url)
                 .addHeader("User-Agent", USER_AGENT);
 
+        // read again for every attempt, as a solved challenge changes the cookies
         final String cookies = getCookies(url);
         if (!cookies.isEmpty()) {
             requestBuilder.addHeader("Cookie", cookies);
@@ -153,28 +378,6 @@ public final class DownloaderImpl extends Downloader {
             headerValueList.forEach(headerValue ->
                     requestBuilder.addHeader(headerName, headerValue));
         });
-
-        try (
-                okhttp3.Response response = client.newCall(requestBuilder.build()).execute()
-        ) {
-            if (response.code() == 429) {
-                throw new ReCaptchaException("reCaptcha Challenge requested", url);
-            }
-
-            String responseBodyToReturn = null;
-            try (ResponseBody body = response.body()) {
-                if (body != null) {
-                    responseBodyToReturn = body.string();
-                }
-            }
-
-            final String latestUrl = response.request().url().toString();
-            return new Response(
-                    response.code(),
-                    response.message(),
-                    response.headers().toMultimap(),
-                    responseBodyToReturn,
-                    latestUrl);
-        }
+        return requestBuilder.build();
     }
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ import org.schabi.newpipe.DownloaderImpl;
 import com.nidoham.openstream.R;
 import com.nidoham.openstream.databinding.ActivityRecaptchaBinding;
 import org.schabi.newpipe.extractor.utils.Utils;
+import org.schabi.newpipe.util.Tracer;
 
 /*
  * Created by beneth <bmauduit@beneth.fr> on 06.12.16.
@@ -51,11 +52,13 @@ public class ReCaptchaActivity extends AppCompatActivity {
     public static final String YT_URL = "https://www.youtube.com";
     public static final String RECAPTCHA_COOKIES_KEY = "recaptcha_cookies";
     
-    private static final boolean DEBUG = true;
+    private static final boolean DEBUG = Tracer.DEBUG;
 
     public static String sanitizeRecaptchaUrl(@Nullable final String url) {
         if (url == null || url.trim().isEmpty()) {
             return YT_URL; // YouTube is the most likely service to have thrown a recaptcha
+        } else if (!url.contains("pbj=1")) {
+            return url; // nothing to remove, avoid scanning and copying the url three times
         } else {
             // remove "pbj=1" parameter from YouYube urls, as it makes the page JSON and not HTML
             return url.replace("&pbj=1", "").replace("pbj=1&", "").replace("?pbj=1", "");
@@ -155,6 +158,9 @@ public class ReCaptchaActivity extends AppCompatActivity {
             // give cookies to Downloader class
             DownloaderImpl.getInstance().setCookie(RECAPTCHA_COOKIES_KEY, foundCookies);
             setResult(RESULT_OK);
+        } else {
+            // let the requests waiting for the challenge fail instead of waiting until timeout
+            DownloaderImpl.getInstance().abandonReCaptchaChallenges();
         }
 
         // Navigate to blank page (unloads youtube to prevent background playback)
@@ -0,0 +1,162 @@
+package org.schabi.newpipe.error;
+
+import android.Manifest;
+import android.app.Activity;
+import android.app.Application;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.content.ContextCompat;
+
+import com.nidoham.openstream.R;
+
+import org.schabi.newpipe.DownloaderImpl;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Shows the reCAPTCHA challenges requested by {@link DownloaderImpl} to the user.
+ * <br>
+ * Challenges are requested by background requests, but since Android 10 apps can not start
+ * activities while they are in the background. So {@link ReCaptchaActivity} is opened from the
+ * resumed activity if there is one; otherwise a notification is shown, and the challenge is
+ * opened as soon as the user comes back to the app, if requests are still waiting for it.
+ */
+public final class ReCaptchaLauncher implements Application.ActivityLifecycleCallbacks {
+    private static final int NOTIFICATION_ID = 5340681;
+
+    @Nullable
+    private static ReCaptchaLauncher instance;
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // only accessed on the main thread
+    @Nullable
+    private WeakReference<Activity> resumedActivity;
+    @Nullable
+    private String pendingUrl;
+
+    private ReCaptchaLauncher(@NonNull final Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Has to be called before the first activity is created, so that the resumed one is known.
+     *
+     * @param application the application
+     */
+    @MainThread
+    public static void init(@NonNull final Application application) {
+        instance = new ReCaptchaLauncher(application);
+        application.registerActivityLifecycleCallbacks(instance);
+    }
+
+    /**
+     * Shows the challenge for the provided url, from any thread.
+     *
+     * @param url the url of the request which was answered with a challenge
+     */
+    public static void requestChallenge(@Nullable final String url) {
+        final ReCaptchaLauncher launcher = instance;
+        if (launcher != null) {
+            launcher.mainHandler.post(() -> launcher.show(url));
+        }
+    }
+
+    @MainThread
+    private void show(@Nullable final String url) {
+        final Activity activity = resumedActivity == null ? null : resumedActivity.get();
+        if (activity != null) {
+            activity.startActivity(createIntent(activity, url));
+            return;
+        }
+
+        pendingUrl = url;
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.TIRAMISU
+                || ContextCompat.checkSelfPermission(context,
+                Manifest.permission.POST_NOTIFICATIONS) == PackageManager.PERMISSION_GRANTED) {
+            final PendingIntent contentIntent = PendingIntent.getActivity(context, 0,
+                    createIntent(context, url).addFlags(Intent.FLAG_ACTIVITY_NEW_TASK),
+                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+            NotificationManagerCompat.from(context).notify(NOTIFICATION_ID,
+                    new NotificationCompat.Builder(context,
+                            context.getString(R.string.error_report_channel_id))
+                            .setSmallIcon(R.drawable.ic_newpipe_triangle_white)
+                            .setContentTitle(context.getString(R.string.recaptcha_request_toast))
+                            .setContentText(context.getString(R.string.recaptcha_solve))
+                            .setContentIntent(contentIntent)
+                            .setAutoCancel(true)
+                            .build());
+        }
+    }
+
+    @NonNull
+    private static Intent createIntent(@NonNull final Context context,
+                                       @Nullable final String url) {
+        return new Intent(context, ReCaptchaActivity.class)
+                .putExtra(ReCaptchaActivity.RECAPTCHA_URL_EXTRA, url)
+                .addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP);
+    }
+
+    @Override
+    public void onActivityResumed(@NonNull final Activity activity) {
+        resumedActivity = new WeakReference<>(activity);
+        if (pendingUrl == null) {
+            return;
+        }
+
+        final String url = pendingUrl;
+        pendingUrl = null;
+        NotificationManagerCompat.from(context).cancel(NOTIFICATION_ID);
+        final DownloaderImpl downloader = DownloaderImpl.getInstance();
+        if (!(activity instanceof ReCaptchaActivity)
+                && downloader != null && downloader.hasPendingReCaptchaChallenges()) {
+            activity.startActivity(createIntent(activity, url));
+        }
+    }
+
+    @Override
+    public void onActivityPaused(@NonNull final Activity activity) {
+        if (resumedActivity != null && resumedActivity.get() == activity) {
+            resumedActivity = null;
+        }
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull final Activity activity,
+                                  @Nullable final Bundle savedInstanceState) {
+        // not interested
+    }
+
+    @Override
+    public void onActivityStarted(@NonNull final Activity activity) {
+        // not interested
+    }
+
+    @Override
+    public void onActivityStopped(@NonNull final Activity activity) {
+        // not interested
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull final Activity activity,
+                                            @NonNull final Bundle outState) {
+        // not interested
+    }
+
+    @Override
+    public void onActivityDestroyed(@NonNull final Activity activity) {
+        // not interested
+    }
+}
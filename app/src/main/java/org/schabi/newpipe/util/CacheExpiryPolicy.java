@@ -0,0 +1,142 @@
+package org.schabi.newpipe.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.schabi.newpipe.extractor.Info;
+import org.schabi.newpipe.extractor.stream.Stream;
+import org.schabi.newpipe.extractor.stream.StreamInfo;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when {@link InfoCache} entries expire.
+ * <br>
+ * Every {@link InfoCache.Type} has its own time to live, capped by the service-wide
+ * {@link ServiceHelper#getCacheExpirationMillis(int)}: kiosks (trending, live) change much faster
+ * than channels or playlists, for example.
+ * <br>
+ * {@link StreamInfo}s additionally expire when their stream urls do: YouTube (googlevideo) urls
+ * carry their expiry time as an {@code expire=} query parameter or an {@code /expire/} path
+ * segment, and stop working after it. Such entries expire {@link #EARLY_REFRESH_MILLIS} before the
+ * earliest stream url does, so that playback never starts from a url which dies right away.
+ */
+final class CacheExpiryPolicy {
+    private static final long EARLY_REFRESH_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final Map<InfoCache.Type, Long> TYPE_TTL_MILLIS =
+            new EnumMap<>(InfoCache.Type.class);
+
+    static {
+        TYPE_TTL_MILLIS.put(InfoCache.Type.STREAM, TimeUnit.HOURS.toMillis(1));
+        TYPE_TTL_MILLIS.put(InfoCache.Type.CHANNEL, TimeUnit.HOURS.toMillis(1));
+        TYPE_TTL_MILLIS.put(InfoCache.Type.CHANNEL_TAB, TimeUnit.MINUTES.toMillis(30));
+        TYPE_TTL_MILLIS.put(InfoCache.Type.COMMENTS, TimeUnit.MINUTES.toMillis(15));
+        TYPE_TTL_MILLIS.put(InfoCache.Type.PLAYLIST, TimeUnit.HOURS.toMillis(1));
+        // viewer counts and the set of live streams change within minutes
+        TYPE_TTL_MILLIS.put(InfoCache.Type.KIOSK, TimeUnit.MINUTES.toMillis(5));
+    }
+
+    private static final String EXPIRE_QUERY_PARAMETER = "expire=";
+    private static final String EXPIRE_PATH_SEGMENT = "/expire/";
+
+    private CacheExpiryPolicy() {
+        // no instance
+    }
+
+    /**
+     * @param info      the info being cached
+     * @param cacheType the type of the info
+     * @param nowMillis the current time, in milliseconds since the epoch
+     * @return when the cache entry should expire, in milliseconds since the epoch
+     */
+    static long getExpireTimestamp(@NonNull final Info info,
+                                   @NonNull final InfoCache.Type cacheType,
+                                   final long nowMillis) {
+        long expireTimestamp = getExpireTimestamp(info.getServiceId(), cacheType, nowMillis);
+
+        if (info instanceof StreamInfo) {
+            final long urlExpiry = getEarliestUrlExpiry((StreamInfo) info);
+            if (urlExpiry > 0) {
+                expireTimestamp = Math.min(expireTimestamp, urlExpiry - EARLY_REFRESH_MILLIS);
+            }
+        }
+        return expireTimestamp;
+    }
+
+    /**
+     * @param serviceId the service the cached data comes from
+     * @param cacheType the type of the cached data
+     * @param nowMillis the current time, in milliseconds since the epoch
+     * @return when a cache entry of this type should expire, not taking into account what it
+     *         contains, in milliseconds since the epoch
+     */
+    static long getExpireTimestamp(final int serviceId,
+                                   @NonNull final InfoCache.Type cacheType,
+                                   final long nowMillis) {
+        return nowMillis + Math.min(TYPE_TTL_MILLIS.get(cacheType),
+                ServiceHelper.getCacheExpirationMillis(serviceId));
+    }
+
+    /**
+     * @return the earliest expiry time of the stream urls, in milliseconds since the epoch, or 0
+     *         if none of them has one
+     */
+    private static long getEarliestUrlExpiry(@NonNull final StreamInfo info) {
+        long earliest = Math.min(
+                parseUrlExpiry(info.getHlsUrl()), parseUrlExpiry(info.getDashMpdUrl()));
+        earliest = Math.min(earliest, getEarliestUrlExpiry(info.getVideoStreams()));
+        earliest = Math.min(earliest, getEarliestUrlExpiry(info.getAudioStreams()));
+        earliest = Math.min(earliest, getEarliestUrlExpiry(info.getVideoOnlyStreams()));
+        return earliest == Long.MAX_VALUE ? 0 : earliest;
+    }
+
+    private static long getEarliestUrlExpiry(@Nullable final List<? extends Stream> streams) {
+        long earliest = Long.MAX_VALUE;
+        if (streams != null) {
+            for (final Stream stream : streams) {
+                if (stream.isUrl()) {
+                    earliest = Math.min(earliest, parseUrlExpiry(stream.getContent()));
+                }
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * @param url a stream url, possibly {@code null} or empty
+     * @return the expiry time in the url, in milliseconds since the epoch, or
+     *         {@link Long#MAX_VALUE} if it has none
+     */
+    private static long parseUrlExpiry(@Nullable final String url) {
+        if (url == null || url.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+
+        int start = url.indexOf(EXPIRE_QUERY_PARAMETER);
+        while (start > 0 && url.charAt(start - 1) != '?' && url.charAt(start - 1) != '&') {
+            // e.g. "noexpire=", which is not the parameter we are looking for
+            start = url.indexOf(EXPIRE_QUERY_PARAMETER, start + 1);
+        }
+        if (start > 0) {
+            start += EXPIRE_QUERY_PARAMETER.length();
+        } else {
+            start = url.indexOf(EXPIRE_PATH_SEGMENT);
+            if (start < 0) {
+                return Long.MAX_VALUE;
+            }
+            start += EXPIRE_PATH_SEGMENT.length();
+        }
+
+        long seconds = 0;
+        int end = start;
+        while (end < url.length() && Character.isDigit(url.charAt(end)) && end - start < 12) {
+            seconds = seconds * 10 + (url.charAt(end) - '0');
+            ++end;
+        }
+        return end == start ? Long.MAX_VALUE : TimeUnit.SECONDS.toMillis(seconds);
+    }
+}
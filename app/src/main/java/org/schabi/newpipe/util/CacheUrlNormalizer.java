@@ -0,0 +1,80 @@
+package org.schabi.newpipe.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.collection.LruCache;
+
+import org.schabi.newpipe.extractor.NewPipe;
+import org.schabi.newpipe.extractor.StreamingService;
+import org.schabi.newpipe.extractor.exceptions.ExtractionException;
+import org.schabi.newpipe.extractor.linkhandler.LinkHandlerFactory;
+
+/**
+ * Turns urls into the canonical form used as {@link InfoCache} keys, so that all of the
+ * equivalent links to the same content (e.g. {@code youtu.be/x}, {@code m.youtube.com/watch?v=x},
+ * {@code youtube.com/watch?v=x&t=30} and {@code youtube.com/shorts/x}) share one cache entry.
+ * <br>
+ * The canonical url is the one built by the {@link LinkHandlerFactory} of the service for the
+ * cache type from the id it extracts from the url. Urls the factory does not accept, and cache
+ * types without a factory (kiosks and channel tabs, whose urls are always built by the extractor
+ * anyway), are used as they are. Results are memoized, as parsing urls involves regexes and the
+ * same urls are looked up over and over.
+ */
+final class CacheUrlNormalizer {
+    @VisibleForTesting
+    static final int MAX_MEMOIZED_URLS = 256;
+
+    private static final LruCache<String, String> CANONICAL_URLS =
+            new LruCache<>(MAX_MEMOIZED_URLS);
+
+    private CacheUrlNormalizer() {
+        // no instance
+    }
+
+    /**
+     * @param serviceId the service the url belongs to
+     * @param url       the url to normalize
+     * @param cacheType the type of info the url points to
+     * @return the canonical url, or {@code url} itself if it can not be normalized
+     */
+    @NonNull
+    static String normalize(final int serviceId,
+                            @NonNull final String url,
+                            @NonNull final InfoCache.Type cacheType) {
+        final String memoKey = serviceId + ":" + cacheType.ordinal() + ":" + url;
+        final String memoized = CANONICAL_URLS.get(memoKey);
+        if (memoized != null) {
+            return memoized;
+        }
+
+        String canonical = url;
+        try {
+            final LinkHandlerFactory factory =
+                    getFactory(NewPipe.getService(serviceId), cacheType);
+            if (factory != null && factory.acceptUrl(url)) {
+                canonical = factory.fromUrl(url).getUrl();
+            }
+        } catch (final ExtractionException | RuntimeException e) {
+            // not a url the service understands, just use it as it is
+        }
+
+        CANONICAL_URLS.put(memoKey, canonical);
+        return canonical;
+    }
+
+    private static LinkHandlerFactory getFactory(@NonNull final StreamingService service,
+                                                 @NonNull final InfoCache.Type cacheType) {
+        switch (cacheType) {
+            case STREAM:
+                return service.getStreamLHFactory();
+            case CHANNEL:
+                return service.getChannelLHFactory();
+            case PLAYLIST:
+                return service.getPlaylistLHFactory();
+            case COMMENTS:
+                return service.getCommentsLHFactory();
+            default:
+                return null;
+        }
+    }
+}
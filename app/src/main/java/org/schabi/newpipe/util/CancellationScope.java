@@ -0,0 +1,111 @@
+package org.schabi.newpipe.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import okhttp3.Call;
+
+/**
+ * Ties the HTTP calls made by an extraction to the extraction itself, so that they can be
+ * cancelled when its result is not wanted anymore (e.g. the Rx subscription was disposed).
+ * <br>
+ * Extractions run synchronously on one thread, so the scope is bound to the thread through
+ * {@link #open()} and {@link #close()}, and the downloader registers every {@link Call} it
+ * makes with the {@link #current()} scope. {@link #cancel()} cancels the calls in flight, which
+ * makes them throw an {@link java.io.IOException} right away instead of finishing the download,
+ * and any call registered afterwards.
+ */
+public final class CancellationScope {
+    private static final ThreadLocal<CancellationScope> CURRENT = new ThreadLocal<>();
+
+    @Nullable
+    private final CancellationScope parent;
+    private final Set<Call> calls = new HashSet<>();
+    private boolean cancelled = false;
+
+    private CancellationScope(@Nullable final CancellationScope parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Opens a scope on the current thread. Has to be followed by {@link #close()} on the same
+     * thread, usually in a {@code finally} block.
+     *
+     * @return the new scope
+     */
+    @NonNull
+    public static CancellationScope open() {
+        final CancellationScope scope = new CancellationScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * @return the innermost scope open on the current thread, if any
+     */
+    @Nullable
+    public static CancellationScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Unbinds the scope from the current thread, restoring the scope that was open before.
+     */
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    /**
+     * Cancels all of the calls in flight in this scope, and all calls registered from now on.
+     * Can be called from any thread.
+     */
+    public void cancel() {
+        final Set<Call> toCancel;
+        synchronized (calls) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            toCancel = new HashSet<>(calls);
+            calls.clear();
+        }
+        for (final Call call : toCancel) {
+            call.cancel();
+        }
+    }
+
+    public boolean isCancelled() {
+        synchronized (calls) {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Registers a call about to be executed, which is cancelled right away if the scope already
+     * is. Has to be followed by {@link #unregister(Call)} once the call is done.
+     *
+     * @param call the call to cancel along with the scope
+     */
+    public void register(@NonNull final Call call) {
+        synchronized (calls) {
+            if (!cancelled) {
+                calls.add(call);
+                return;
+            }
+        }
+        call.cancel();
+    }
+
+    public void unregister(@NonNull final Call call) {
+        synchronized (calls) {
+            calls.remove(call);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.schabi.newpipe.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.schabi.newpipe.extractor.channel.ChannelInfo;
+import org.schabi.newpipe.extractor.linkhandler.ListLinkHandler;
+import org.schabi.newpipe.util.image.ImageStrategy;
+
+import java.util.List;
+
+/**
+ * The parts of a {@link ChannelInfo} needed outside of the channel page, i.e. without the
+ * banners, description and related items of a full info. The tabs are kept, since they are what
+ * is needed to load the content of the channel.
+ * <br>
+ * Obtained through {@link ExtractorHelper#getChannelSummary(int, String, boolean)}.
+ */
+public final class ChannelSummary {
+    private final int serviceId;
+    @NonNull
+    private final String url;
+    @NonNull
+    private final String name;
+    @Nullable
+    private final String avatarUrl;
+    private final long subscriberCount;
+    private final boolean verified;
+    @NonNull
+    private final List<ListLinkHandler> tabs;
+
+    private ChannelSummary(@NonNull final ChannelInfo info) {
+        serviceId = info.getServiceId();
+        url = StringInterner.intern(info.getUrl());
+        name = StringInterner.intern(info.getName());
+        avatarUrl = StringInterner.intern(ImageStrategy.choosePreferredImage(info.getAvatars()));
+        subscriberCount = info.getSubscriberCount();
+        verified = info.isVerified();
+        tabs = List.copyOf(info.getTabs());
+    }
+
+    @NonNull
+    static ChannelSummary from(@NonNull final ChannelInfo info) {
+        return new ChannelSummary(info);
+    }
+
+    public int getServiceId() {
+        return serviceId;
+    }
+
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @Nullable
+    public String getAvatarUrl() {
+        return avatarUrl;
+    }
+
+    public long getSubscriberCount() {
+        return subscriberCount;
+    }
+
+    public boolean isVerified() {
+        return verified;
+    }
+
+    @NonNull
+    public List<ListLinkHandler> getTabs() {
+        return tabs;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ChannelSummary{serviceId=" + serviceId + ", url=" + url + ", name=" + name + "}";
+    }
+}
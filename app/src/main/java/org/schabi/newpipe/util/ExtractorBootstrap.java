@@ -0,0 +1,133 @@
+package org.schabi.newpipe.util;
+
+import android.content.Context;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import androidx.preference.PreferenceManager;
+
+import com.nidoham.openstream.R;
+
+import org.schabi.newpipe.DownloaderImpl;
+import org.schabi.newpipe.error.ReCaptchaActivity;
+import org.schabi.newpipe.error.ReCaptchaLauncher;
+import org.schabi.newpipe.extractor.NewPipe;
+import org.schabi.newpipe.extractor.exceptions.ExtractionException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Initializes NewPipeExtractor with the app's {@link DownloaderImpl} and with the preferred
+ * localization and content country, and lets extraction code wait for that to happen.
+ * <br>
+ * The downloader gets the reCAPTCHA cookies saved by {@link ReCaptchaActivity} in a previous
+ * session, so that the app is not throttled again after a restart, and shows
+ * {@link ReCaptchaActivity} whenever a new challenge is requested (see
+ * {@link ReCaptchaLauncher}).
+ * <br>
+ * {@link #init(Context)} is run in the background during app startup, while
+ * {@link ExtractorHelper} calls {@link #awaitReady()} before every extraction, so that the first
+ * request never runs against an extractor without a downloader: if initialization failed or
+ * did not complete in time, extractions fail with that reason instead.
+ */
+public final class ExtractorBootstrap {
+    private static final String TAG = ExtractorBootstrap.class.getSimpleName();
+    // in case init() is never called (e.g. in a Phoenix process), do not block forever
+    private static final long READY_TIMEOUT_SECONDS = 10;
+
+    private static volatile CountDownLatch ready = new CountDownLatch(1);
+    @Nullable
+    private static volatile Throwable initFailure;
+
+    private ExtractorBootstrap() {
+        // no instance
+    }
+
+    /**
+     * Should be called exactly once, off the main thread, during app startup.
+     *
+     * @param context the application context
+     */
+    @WorkerThread
+    public static void init(@NonNull final Context context) {
+        init(() -> {
+            final DownloaderImpl downloader = DownloaderImpl.init(
+                    OkHttpCore.newBuilder(OkHttpCore.Purpose.EXTRACTION));
+            downloader.updateYoutubeRestrictedModeCookies(context);
+            restoreReCaptchaCookies(context, downloader);
+            downloader.setOnReCaptchaChallengeListener(ReCaptchaLauncher::requestChallenge);
+
+            NewPipe.init(downloader,
+                    Localization.getPreferredLocalization(context),
+                    Localization.getPreferredContentCountry(context));
+        });
+    }
+
+    /**
+     * Runs the initialization and then releases the threads waiting in {@link #awaitReady()},
+     * recording why it failed if it did.
+     *
+     * @param initialization what has to be done before extractions can run
+     */
+    @VisibleForTesting
+    static void init(@NonNull final Runnable initialization) {
+        try {
+            initialization.run();
+        } catch (final RuntimeException | Error e) {
+            initFailure = e;
+            throw e;
+        } finally {
+            ready.countDown();
+        }
+    }
+
+    /**
+     * Forgets about a previous initialization, so that tests can run it again.
+     */
+    @VisibleForTesting
+    static void reset() {
+        initFailure = null;
+        ready = new CountDownLatch(1);
+    }
+
+    private static void restoreReCaptchaCookies(@NonNull final Context context,
+                                                @NonNull final DownloaderImpl downloader) {
+        final String cookies = PreferenceManager.getDefaultSharedPreferences(context)
+                .getString(context.getString(R.string.recaptcha_cookies_key), null);
+        if (!TextUtils.isEmpty(cookies)) {
+            downloader.setCookie(ReCaptchaActivity.RECAPTCHA_COOKIES_KEY, cookies);
+        }
+    }
+
+    /**
+     * Blocks until {@link #init(Context)} has completed, which is immediate if it already did.
+     * Must not be called on the main thread.
+     *
+     * @throws ExtractionException if initialization failed or did not complete in time, since
+     *                             extracting anyway would fail with an unrelated error
+     */
+    @WorkerThread
+    public static void awaitReady() throws InterruptedException, ExtractionException {
+        awaitReady(READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @VisibleForTesting
+    static void awaitReady(final long timeout, @NonNull final TimeUnit unit)
+            throws InterruptedException, ExtractionException {
+        if (!ready.await(timeout, unit)) {
+            Log.w(TAG, "Extractor was not initialized within " + timeout + " " + unit);
+            throw new ExtractionException("Extractor was not initialized within "
+                    + timeout + " " + unit);
+        }
+
+        final Throwable failure = initFailure;
+        if (failure != null) {
+            throw new ExtractionException("Extractor initialization failed", failure);
+        }
+    }
+}
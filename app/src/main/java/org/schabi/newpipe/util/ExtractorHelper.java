@@ -9,6 +9,7 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.preference.PreferenceManager;
 
 import com.nidoham.openstream.R;
@@ -33,21 +34,67 @@ import org.schabi.newpipe.extractor.suggestion.SuggestionExtractor;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 public final class ExtractorHelper {
     private static final String TAG = ExtractorHelper.class.getSimpleName();
     private static final InfoCache CACHE = InfoCache.getInstance();
 
-    private static final boolean DEBUG = true; // replaced MainActivity.DEBUG
+    private static final boolean DEBUG = Tracer.DEBUG;
+    private static final int MAX_CONCURRENT_BATCH_LOADS = 4;
 
     private ExtractorHelper() {
         // no instance
     }
 
+    /**
+     * Wraps an extraction in a {@link Single}, waiting for the extractor to be initialized (see
+     * {@link ExtractorBootstrap}) before running it. Disposing the {@link Single} cancels the
+     * HTTP calls of the extraction, see {@link #cancellable(Callable)}.
+     */
+    private static <T> Single<T> extract(@NonNull final Callable<T> extraction) {
+        return cancellable(() -> {
+            final boolean traced = Tracer.beginSection("ExtractorHelper.extract");
+            try {
+                ExtractorBootstrap.awaitReady();
+                return extraction.call();
+            } finally {
+                Tracer.endSection(traced);
+            }
+        });
+    }
+
+    /**
+     * Wraps a blocking task in a {@link Single}. Disposing the {@link Single} cancels the HTTP
+     * calls of the task through a {@link CancellationScope}, instead of letting them download a
+     * response nobody will read.
+     */
+    @VisibleForTesting
+    static <T> Single<T> cancellable(@NonNull final Callable<T> task) {
+        return Single.create(emitter -> {
+            final CancellationScope scope = CancellationScope.open();
+            emitter.setCancellable(scope::cancel);
+            try {
+                emitter.onSuccess(task.call());
+            } catch (final Throwable e) {
+                Exceptions.throwIfFatal(e);
+                // after a cancellation, the error is only the consequence of it
+                emitter.tryOnError(e);
+            } finally {
+                scope.close();
+            }
+        });
+    }
+
     private static void checkServiceId(final int serviceId) {
         if (serviceId == Constants.NO_SERVICE_ID) {
             throw new IllegalArgumentException("serviceId is NO_SERVICE_ID");
@@ -62,7 +109,7 @@ public final class ExtractorHelper {
                                                final List<String> contentFilter,
                                                final String sortFilter) {
         checkServiceId(serviceId);
-        return Single.fromCallable(() ->
+        return extract(() ->
                 SearchInfo.getInfo(NewPipe.getService(serviceId),
                         NewPipe.getService(serviceId)
                                 .getSearchQHFactory()
@@ -76,7 +123,7 @@ public final class ExtractorHelper {
             final String sortFilter,
             final Page page) {
         checkServiceId(serviceId);
-        return Single.fromCallable(() ->
+        return extract(() ->
                 SearchInfo.getMoreItems(NewPipe.getService(serviceId),
                         NewPipe.getService(serviceId)
                                 .getSearchQHFactory()
@@ -86,7 +133,7 @@ public final class ExtractorHelper {
 
     public static Single<List<String>> suggestionsFor(final int serviceId, final String query) {
         checkServiceId(serviceId);
-        return Single.fromCallable(() -> {
+        return extract(() -> {
             final SuggestionExtractor extractor = NewPipe.getService(serviceId)
                     .getSuggestionExtractor();
             return extractor != null
@@ -99,24 +146,91 @@ public final class ExtractorHelper {
                                                    final boolean forceLoad) {
         checkServiceId(serviceId);
         return checkCache(forceLoad, serviceId, url, InfoCache.Type.STREAM,
-                Single.fromCallable(() -> StreamInfo.getInfo(NewPipe.getService(serviceId), url)));
+                extract(() -> StreamInfo.getInfo(NewPipe.getService(serviceId), url)));
+    }
+
+    /**
+     * Loads the infos of many streams at once. Cached infos are emitted right away, the others
+     * are loaded on the IO scheduler, at most {@link #MAX_CONCURRENT_BATCH_LOADS} at a time. A
+     * stream failing to load does not stop the others: its {@link BatchResult} holds the error.
+     *
+     * @param serviceId the service of all of the streams
+     * @param urls      the urls of the streams
+     * @param ordered   whether to emit results in the order of {@code urls}, or else as soon as
+     *                  each of them is available
+     * @return emits one result per url, then completes
+     */
+    public static Observable<BatchResult<StreamInfo>> getStreamInfos(
+            final int serviceId,
+            @NonNull final List<String> urls,
+            final boolean ordered) {
+        checkServiceId(serviceId);
+        final Flowable<Integer> indexes = Flowable.range(0, urls.size());
+        final Function<Integer, Single<BatchResult<StreamInfo>>> load =
+                index -> loadBatchItem(serviceId, index, urls.get(index));
+
+        final Flowable<BatchResult<StreamInfo>> results;
+        if (ordered) {
+            // loads run eagerly, but results are buffered until those before them are emitted
+            results = indexes.concatMapEager(index -> load.apply(index).toFlowable(),
+                    MAX_CONCURRENT_BATCH_LOADS, Flowable.bufferSize());
+        } else {
+            results = indexes.flatMapSingle(load, false, MAX_CONCURRENT_BATCH_LOADS);
+        }
+        return results.toObservable();
+    }
+
+    private static Single<BatchResult<StreamInfo>> loadBatchItem(final int serviceId,
+                                                                 final int index,
+                                                                 @NonNull final String url) {
+        // only peek, so that a miss is counted once, by the lookup of getStreamInfo
+        return Maybe.fromCallable(() ->
+                        (StreamInfo) CACHE.peekFromKey(serviceId, url, InfoCache.Type.STREAM))
+                .switchIfEmpty(getStreamInfo(serviceId, url, false)
+                        .subscribeOn(Schedulers.io()))
+                .map(info -> new BatchResult<>(index, url, info, null))
+                .onErrorReturn(throwable -> new BatchResult<>(index, url, null, throwable));
+    }
+
+    /**
+     * Like {@link #getStreamInfo(int, String, boolean)}, but only the returned summary is cached,
+     * for callers which do not show the detail page of the stream.
+     */
+    public static Single<StreamSummary> getStreamSummary(final int serviceId, final String url,
+                                                         final boolean forceLoad) {
+        checkServiceId(serviceId);
+        return checkSummaryCache(forceLoad, serviceId, url, InfoCache.Type.STREAM,
+                extract(() -> StreamInfo.getInfo(NewPipe.getService(serviceId), url)),
+                StreamSummary::from);
     }
 
     public static Single<ChannelInfo> getChannelInfo(final int serviceId, final String url,
                                                      final boolean forceLoad) {
         checkServiceId(serviceId);
         return checkCache(forceLoad, serviceId, url, InfoCache.Type.CHANNEL,
-                Single.fromCallable(() ->
+                extract(() ->
                         ChannelInfo.getInfo(NewPipe.getService(serviceId), url)));
     }
 
+    /**
+     * Like {@link #getChannelInfo(int, String, boolean)}, but only the returned summary is
+     * cached, for callers which do not show the channel page.
+     */
+    public static Single<ChannelSummary> getChannelSummary(final int serviceId, final String url,
+                                                           final boolean forceLoad) {
+        checkServiceId(serviceId);
+        return checkSummaryCache(forceLoad, serviceId, url, InfoCache.Type.CHANNEL,
+                extract(() -> ChannelInfo.getInfo(NewPipe.getService(serviceId), url)),
+                ChannelSummary::from);
+    }
+
     public static Single<ChannelTabInfo> getChannelTab(final int serviceId,
                                                        final ListLinkHandler listLinkHandler,
                                                        final boolean forceLoad) {
         checkServiceId(serviceId);
         return checkCache(forceLoad, serviceId,
                 listLinkHandler.getUrl(), InfoCache.Type.CHANNEL_TAB,
-                Single.fromCallable(() ->
+                extract(() ->
                         ChannelTabInfo.getInfo(NewPipe.getService(serviceId), listLinkHandler)));
     }
 
@@ -125,7 +239,7 @@ public final class ExtractorHelper {
             final ListLinkHandler listLinkHandler,
             final Page nextPage) {
         checkServiceId(serviceId);
-        return Single.fromCallable(() ->
+        return extract(() ->
                 ChannelTabInfo.getMoreItems(NewPipe.getService(serviceId),
                         listLinkHandler, nextPage));
     }
@@ -135,7 +249,7 @@ public final class ExtractorHelper {
                                                        final boolean forceLoad) {
         checkServiceId(serviceId);
         return checkCache(forceLoad, serviceId, url, InfoCache.Type.COMMENTS,
-                Single.fromCallable(() ->
+                extract(() ->
                         CommentsInfo.getInfo(NewPipe.getService(serviceId), url)));
     }
 
@@ -144,7 +258,7 @@ public final class ExtractorHelper {
             final CommentsInfo info,
             final Page nextPage) {
         checkServiceId(serviceId);
-        return Single.fromCallable(() ->
+        return extract(() ->
                 CommentsInfo.getMoreItems(NewPipe.getService(serviceId), info, nextPage));
     }
 
@@ -153,7 +267,7 @@ public final class ExtractorHelper {
             final String url,
             final Page nextPage) {
         checkServiceId(serviceId);
-        return Single.fromCallable(() ->
+        return extract(() ->
                 CommentsInfo.getMoreItems(NewPipe.getService(serviceId), url, nextPage));
     }
 
@@ -162,7 +276,7 @@ public final class ExtractorHelper {
                                                        final boolean forceLoad) {
         checkServiceId(serviceId);
         return checkCache(forceLoad, serviceId, url, InfoCache.Type.PLAYLIST,
-                Single.fromCallable(() ->
+                extract(() ->
                         PlaylistInfo.getInfo(NewPipe.getService(serviceId), url)));
     }
 
@@ -170,7 +284,7 @@ public final class ExtractorHelper {
                                                                              final String url,
                                                                              final Page nextPage) {
         checkServiceId(serviceId);
-        return Single.fromCallable(() ->
+        return extract(() ->
                 PlaylistInfo.getMoreItems(NewPipe.getService(serviceId), url, nextPage));
     }
 
@@ -178,13 +292,13 @@ public final class ExtractorHelper {
                                                  final String url,
                                                  final boolean forceLoad) {
         return checkCache(forceLoad, serviceId, url, InfoCache.Type.KIOSK,
-                Single.fromCallable(() -> KioskInfo.getInfo(NewPipe.getService(serviceId), url)));
+                extract(() -> KioskInfo.getInfo(NewPipe.getService(serviceId), url)));
     }
 
     public static Single<InfoItemsPage<StreamInfoItem>> getMoreKioskItems(final int serviceId,
                                                                           final String url,
                                                                           final Page nextPage) {
-        return Single.fromCallable(() ->
+        return extract(() ->
                 KioskInfo.getMoreItems(NewPipe.getService(serviceId), url, nextPage));
     }
 
@@ -198,21 +312,21 @@ public final class ExtractorHelper {
                                                          @NonNull final InfoCache.Type cacheType,
                                                          @NonNull final Single<I> loadFromNetwork) {
         checkServiceId(serviceId);
-        final Single<I> actualLoadFromNetwork = loadFromNetwork
-                .doOnSuccess(info -> CACHE.putInfo(serviceId, url, info, cacheType));
-
-        final Single<I> load;
-        if (forceLoad) {
-            CACHE.removeInfo(serviceId, url, cacheType);
-            load = actualLoadFromNetwork;
-        } else {
-            load = Maybe.concat(ExtractorHelper.loadFromCache(serviceId, url, cacheType),
+        return Single.defer(() -> {
+            // the profile may change while loading, the result belongs to the one it started with
+            final String profile = CACHE.getCurrentProfile();
+            final Single<I> actualLoadFromNetwork = loadFromNetwork
+                    .doOnSuccess(info -> CACHE.putInfo(profile, serviceId, url, info, cacheType));
+
+            if (forceLoad) {
+                CACHE.removeInfo(serviceId, url, cacheType);
+                return actualLoadFromNetwork;
+            }
+            return Maybe.concat(ExtractorHelper.loadFromCache(serviceId, url, cacheType),
                             actualLoadFromNetwork.toMaybe())
                     .firstElement()
                     .toSingle();
-        }
-
-        return load;
+        });
     }
 
     private static <I extends Info> Maybe<I> loadFromCache(
@@ -223,7 +337,7 @@ public final class ExtractorHelper {
         return Maybe.defer(() -> {
             final I info = (I) CACHE.getFromKey(serviceId, url, cacheType);
             if (DEBUG) {
-                Log.d(TAG, "loadFromCache() called, info > " + info);
+                Log.d(TAG, "loadFromCache() called, info > " + info + ", " + CACHE.getStats());
             }
             if (info != null) {
                 return Maybe.just(info);
@@ -232,10 +346,104 @@ public final class ExtractorHelper {
         });
     }
 
+    /**
+     * Loads a summary from the cache, or else projects it from the full info if that is cached,
+     * or else loads the full info from the network and caches only its summary.
+     */
+    private static <I extends Info, S> Single<S> checkSummaryCache(
+            final boolean forceLoad,
+            final int serviceId,
+            @NonNull final String url,
+            @NonNull final InfoCache.Type cacheType,
+            @NonNull final Single<I> loadFromNetwork,
+            @NonNull final Function<I, S> summarize) {
+        checkServiceId(serviceId);
+        return Single.defer(() -> {
+            // the profile may change while loading, the result belongs to the one it started with
+            final String profile = CACHE.getCurrentProfile();
+            final Single<S> actualLoadFromNetwork = loadFromNetwork
+                    .map(summarize)
+                    .doOnSuccess(summary ->
+                            CACHE.putSummary(profile, serviceId, url, summary, cacheType));
+            if (forceLoad) {
+                CACHE.removeInfo(serviceId, url, cacheType);
+                return actualLoadFromNetwork;
+            }
+
+            final Maybe<S> loadFromCache = Maybe.defer(() -> {
+                final Object cached = CACHE.getSummaryFromKey(serviceId, url, cacheType);
+                if (cached == null) {
+                    return Maybe.empty();
+                }
+                return Maybe.just(cached instanceof Info
+                        ? summarize.apply((I) cached) : (S) cached);
+            });
+            return Maybe.concat(loadFromCache, actualLoadFromNetwork.toMaybe())
+                    .firstElement()
+                    .toSingle();
+        });
+    }
+
     public static boolean isCached(final int serviceId,
                                    @NonNull final String url,
                                    @NonNull final InfoCache.Type cacheType) {
-        return null != loadFromCache(serviceId, url, cacheType).blockingGet();
+        checkServiceId(serviceId);
+        return CACHE.isCached(serviceId, url, cacheType);
+    }
+
+    /**
+     * The outcome of loading one of the items of a batch, either an info or an error.
+     *
+     * @param <I> the type of info
+     */
+    public static final class BatchResult<I extends Info> {
+        private final int index;
+        @NonNull
+        private final String url;
+        @Nullable
+        private final I info;
+        @Nullable
+        private final Throwable error;
+
+        BatchResult(final int index, @NonNull final String url,
+                    @Nullable final I info, @Nullable final Throwable error) {
+            this.index = index;
+            this.url = url;
+            this.info = info;
+            this.error = error;
+        }
+
+        /**
+         * @return the position of the item in the list of urls passed to the batch
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        @NonNull
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * @return the loaded info, or {@code null} if loading failed
+         */
+        @Nullable
+        public I getInfo() {
+            return info;
+        }
+
+        /**
+         * @return why loading failed, or {@code null} if it succeeded
+         */
+        @Nullable
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isSuccessful() {
+            return info != null;
+        }
     }
 
     /*//////////////////////////////////////////////////////////////////////////
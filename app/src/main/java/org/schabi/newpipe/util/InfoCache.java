@@ -26,9 +26,34 @@ import androidx.annotation.Nullable;
 import androidx.collection.LruCache;
 
 import org.schabi.newpipe.extractor.Info;
+import org.schabi.newpipe.extractor.NewPipe;
+import org.schabi.newpipe.extractor.localization.ContentCountry;
 
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * An in-memory cache of extracted {@link Info}s.
+ * <br>
+ * The same url can give different results depending on the request profile, i.e. on the
+ * YouTube restricted mode, the localization and the {@link ContentCountry}, so the cache
+ * is partitioned by profile: changing any of them switches to another partition instead of
+ * clearing the cache, and switching back finds the previous entries again. Each partition is its
+ * own LRU cache; only the last {@link #MAX_PARTITIONS} profiles are kept, and partitions that are
+ * not in use anymore are trimmed to {@link #TRIM_CACHE_TO} entries. Loaded results are put with
+ * the profile captured by {@link #getCurrentProfile()} when their request started, so that they
+ * never end up in the partition of a profile which became current while they were loading.
+ * <br>
+ * Besides full {@link Info}s, the cache holds compact summaries (e.g. {@link StreamSummary}) for
+ * callers which do not need the whole info. They only weigh {@code 1/}{@link #INFO_WEIGHT} of a
+ * full info in the LRU budget, so many more of them fit.
+ * <br>
+ * How long entries stay valid is decided by {@link CacheExpiryPolicy}. Urls are normalized by
+ * {@link CacheUrlNormalizer} before being used as keys, so that different links to the same
+ * content share their entry; {@link #getStats()} tells how well that works in practice.
+ */
 public final class InfoCache {
     private final String TAG = getClass().getSimpleName();
     private static final boolean DEBUG = false;
@@ -39,8 +64,33 @@ public final class InfoCache {
      * Trim the cache to this size.
      */
     private static final int TRIM_CACHE_TO = 30;
+    /**
+     * How many summaries weigh as much as a full info, the sizes above being in full infos.
+     */
+    private static final int INFO_WEIGHT = 10;
+    private static final String SUMMARY_KEY_PREFIX = "summary:";
+    private static final int MAX_PARTITIONS = 3;
+
+    /**
+     * The partitions by request profile fingerprint (see {@link #currentProfile()}), in access
+     * order, so that the least recently used one is evicted first. Also used as the lock for all
+     * partitions.
+     */
+    private static final LinkedHashMap<String, LruCache<String, CacheData>> PARTITIONS =
+            new LinkedHashMap<>(MAX_PARTITIONS + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        final Map.Entry<String, LruCache<String, CacheData>> eldest) {
+                    return size() > MAX_PARTITIONS;
+                }
+            };
+
+    private static volatile boolean restrictedMode = false;
+    @Nullable
+    private static String lastProfile;
 
-    private static final LruCache<String, CacheData> LRU_CACHE = new LruCache<>(MAX_ITEMS_ON_CACHE);
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
 
     private InfoCache() {
         // no instance
@@ -66,33 +116,121 @@ public final class InfoCache {
     private static String keyOf(final int serviceId,
                                 @NonNull final String url,
                                 @NonNull final Type cacheType) {
-        return serviceId + ":" + cacheType.ordinal() + ":" + url;
+        return serviceId + ":" + cacheType.ordinal() + ":"
+                + CacheUrlNormalizer.normalize(serviceId, url, cacheType);
+    }
+
+    /**
+     * @return a fingerprint of everything that changes the content returned by services for the
+     *         same url, i.e. what the cache has to be partitioned by
+     */
+    @NonNull
+    private static String currentProfile() {
+        final org.schabi.newpipe.extractor.localization.Localization localization =
+                NewPipe.getPreferredLocalization();
+        final ContentCountry contentCountry = NewPipe.getPreferredContentCountry();
+        return (restrictedMode ? "restricted" : "unrestricted")
+                + ":" + (localization == null ? "" : localization.getLocalizationCode())
+                + ":" + (contentCountry == null ? "" : contentCountry.getCountryCode());
+    }
+
+    /**
+     * Must be called while holding the {@link #PARTITIONS} lock.
+     *
+     * @return the partition for the current request profile, created if needed
+     */
+    @NonNull
+    private static LruCache<String, CacheData> currentPartition() {
+        final String profile = currentProfile();
+        LruCache<String, CacheData> partition = PARTITIONS.get(profile);
+        if (partition == null) {
+            partition = new LruCache<>(MAX_ITEMS_ON_CACHE * INFO_WEIGHT) {
+                @Override
+                protected int sizeOf(@NonNull final String key, @NonNull final CacheData value) {
+                    return value.value instanceof Info ? INFO_WEIGHT : 1;
+                }
+            };
+            PARTITIONS.put(profile, partition);
+        }
+
+        if (!profile.equals(lastProfile)) {
+            // the previous profile may well come back (e.g. restricted mode toggled back), but
+            // in the meantime its partition does not need to be full
+            final LruCache<String, CacheData> previous =
+                    lastProfile == null ? null : PARTITIONS.get(lastProfile);
+            if (previous != null) {
+                removeStaleCache(previous);
+                previous.trimToSize(TRIM_CACHE_TO * INFO_WEIGHT);
+            }
+            lastProfile = profile;
+        }
+        return partition;
+    }
+
+    /**
+     * Must be called while holding the {@link #PARTITIONS} lock.
+     *
+     * @param profile the request profile, as returned by {@link #currentProfile()}
+     * @return the partition for the given profile if it is the current one or if it still
+     *         exists, otherwise {@code null}, as results for an evicted profile are not worth
+     *         evicting a more recent one
+     */
+    @Nullable
+    private static LruCache<String, CacheData> partitionForPut(@NonNull final String profile) {
+        return profile.equals(currentProfile()) ? currentPartition() : PARTITIONS.get(profile);
     }
 
-    private static void removeStaleCache() {
-        for (final Map.Entry<String, CacheData> entry : InfoCache.LRU_CACHE.snapshot().entrySet()) {
+    private static void removeStaleCache(@NonNull final LruCache<String, CacheData> partition) {
+        for (final Map.Entry<String, CacheData> entry : partition.snapshot().entrySet()) {
             final CacheData data = entry.getValue();
             if (data != null && data.isExpired()) {
-                InfoCache.LRU_CACHE.remove(entry.getKey());
+                partition.remove(entry.getKey());
             }
         }
     }
 
     @Nullable
-    private static Info getInfo(@NonNull final String key) {
-        final CacheData data = InfoCache.LRU_CACHE.get(key);
+    private static Object getValue(@NonNull final LruCache<String, CacheData> partition,
+                                   @NonNull final String key) {
+        final CacheData data = partition.get(key);
         if (data == null) {
             return null;
         }
 
         if (data.isExpired()) {
-            InfoCache.LRU_CACHE.remove(key);
+            partition.remove(key);
             return null;
         }
 
-        return data.info;
+        return data.value;
     }
 
+    /**
+     * Sets whether YouTube restricted mode is enabled, which is part of the request profile
+     * the cache is partitioned by. Called by the downloader whenever the setting is applied.
+     */
+    public void setRestrictedMode(final boolean enabled) {
+        if (DEBUG) {
+            Log.d(TAG, "setRestrictedMode() called with: enabled = [" + enabled + "]");
+        }
+        restrictedMode = enabled;
+    }
+
+    /**
+     * @return an opaque key of the current request profile, to be captured when a request starts
+     *         and passed to {@link #putInfo(String, int, String, Info, Type)} or
+     *         {@link #putSummary(String, int, String, Object, Type)} once it completes
+     */
+    @NonNull
+    public String getCurrentProfile() {
+        return currentProfile();
+    }
+
+    /**
+     * Looks an info up, counting the lookup as a hit or a miss in {@link #getStats()}.
+     *
+     * @return the cached info, if any
+     */
     @Nullable
     public Info getFromKey(final int serviceId,
                            @NonNull final String url,
@@ -101,8 +239,54 @@ public final class InfoCache {
             Log.d(TAG, "getFromKey() called with: "
                     + "serviceId = [" + serviceId + "], url = [" + url + "]");
         }
-        synchronized (LRU_CACHE) {
-            return getInfo(keyOf(serviceId, url, cacheType));
+        final Info info = lookUp(keyOf(serviceId, url, cacheType));
+        countLookup(info != null);
+        return info;
+    }
+
+    /**
+     * Like {@link #getFromKey(int, String, Type)}, but only counts hits, for synchronous checks
+     * which, when they miss, are followed by a regular lookup that counts the miss.
+     *
+     * @return the cached info, if any
+     */
+    @Nullable
+    public Info peekFromKey(final int serviceId,
+                            @NonNull final String url,
+                            @NonNull final Type cacheType) {
+        final Info info = lookUp(keyOf(serviceId, url, cacheType));
+        if (info != null) {
+            countLookup(true);
+        }
+        return info;
+    }
+
+    /**
+     * @return whether a valid info is cached, without counting this as a lookup
+     */
+    public boolean isCached(final int serviceId,
+                            @NonNull final String url,
+                            @NonNull final Type cacheType) {
+        return lookUp(keyOf(serviceId, url, cacheType)) != null;
+    }
+
+    @Nullable
+    private static <T> T lookUp(@NonNull final String key) {
+        final boolean traced = Tracer.beginSection("InfoCache.get");
+        try {
+            synchronized (PARTITIONS) {
+                //noinspection unchecked
+                return (T) getValue(currentPartition(), key);
+            }
+        } finally {
+            Tracer.endSection(traced);
+        }
+    }
+
+    private void countLookup(final boolean hit) {
+        (hit ? HITS : MISSES).incrementAndGet();
+        if (DEBUG) {
+            Log.d(TAG, "lookup " + (hit ? "hit" : "miss") + ", " + getStats());
         }
     }
 
@@ -110,14 +294,94 @@ public final class InfoCache {
                         @NonNull final String url,
                         @NonNull final Info info,
                         @NonNull final Type cacheType) {
+        putInfo(currentProfile(), serviceId, url, info, cacheType);
+    }
+
+    /**
+     * @param profile   the request profile the info was requested with, see
+     *                  {@link #getCurrentProfile()}
+     * @param serviceId the service of the info
+     * @param url       the url of the info
+     * @param info      the info to cache
+     * @param cacheType the type of the info
+     */
+    public void putInfo(@NonNull final String profile,
+                        final int serviceId,
+                        @NonNull final String url,
+                        @NonNull final Info info,
+                        @NonNull final Type cacheType) {
         if (DEBUG) {
             Log.d(TAG, "putInfo() called with: info = [" + info + "]");
         }
 
-        final long expirationMillis = ServiceHelper.getCacheExpirationMillis(info.getServiceId());
-        synchronized (LRU_CACHE) {
-            final CacheData data = new CacheData(info, expirationMillis);
-            LRU_CACHE.put(keyOf(serviceId, url, cacheType), data);
+        final boolean traced = Tracer.beginSection("InfoCache.put");
+        try {
+            final String key = keyOf(serviceId, url, cacheType);
+            final long expireTimestamp = CacheExpiryPolicy.getExpireTimestamp(
+                    info, cacheType, System.currentTimeMillis());
+            synchronized (PARTITIONS) {
+                final LruCache<String, CacheData> partition = partitionForPut(profile);
+                if (partition != null) {
+                    partition.put(key, new CacheData(info, expireTimestamp));
+                }
+            }
+        } finally {
+            Tracer.endSection(traced);
+        }
+    }
+
+    /**
+     * Looks a summary up, falling back to the full info it can be projected from, counting both
+     * as a single lookup in {@link #getStats()}.
+     *
+     * @param serviceId the service of the summarized info
+     * @param url       the url of the summarized info
+     * @param cacheType the type of the summarized info
+     * @return the summary put with {@link #putSummary(String, int, String, Object, Type)} if any,
+     *         otherwise the full {@link Info} if that is cached, otherwise {@code null}
+     */
+    @Nullable
+    public Object getSummaryFromKey(final int serviceId,
+                                    @NonNull final String url,
+                                    @NonNull final Type cacheType) {
+        final String key = keyOf(serviceId, url, cacheType);
+        Object cached = lookUp(SUMMARY_KEY_PREFIX + key);
+        if (cached == null) {
+            cached = lookUp(key);
+        }
+
+        countLookup(cached != null);
+        return cached;
+    }
+
+    /**
+     * Caches a compact summary of an info, in place of the full info. It expires after the time
+     * to live of its type.
+     *
+     * @param profile   the request profile the info was requested with, see
+     *                  {@link #getCurrentProfile()}
+     * @param serviceId the service of the summarized info
+     * @param url       the url of the summarized info
+     * @param summary   the summary, which has to be immutable
+     * @param cacheType the type of the summarized info
+     */
+    public void putSummary(@NonNull final String profile,
+                           final int serviceId,
+                           @NonNull final String url,
+                           @NonNull final Object summary,
+                           @NonNull final Type cacheType) {
+        if (DEBUG) {
+            Log.d(TAG, "putSummary() called with: summary = [" + summary + "]");
+        }
+
+        final String key = SUMMARY_KEY_PREFIX + keyOf(serviceId, url, cacheType);
+        final long expireTimestamp = CacheExpiryPolicy.getExpireTimestamp(
+                serviceId, cacheType, System.currentTimeMillis());
+        synchronized (PARTITIONS) {
+            final LruCache<String, CacheData> partition = partitionForPut(profile);
+            if (partition != null) {
+                partition.put(key, new CacheData(summary, expireTimestamp));
+            }
         }
     }
 
@@ -128,8 +392,11 @@ public final class InfoCache {
             Log.d(TAG, "removeInfo() called with: "
                     + "serviceId = [" + serviceId + "], url = [" + url + "]");
         }
-        synchronized (LRU_CACHE) {
-            LRU_CACHE.remove(keyOf(serviceId, url, cacheType));
+        final String key = keyOf(serviceId, url, cacheType);
+        synchronized (PARTITIONS) {
+            final LruCache<String, CacheData> partition = currentPartition();
+            partition.remove(key);
+            partition.remove(SUMMARY_KEY_PREFIX + key);
         }
     }
 
@@ -137,8 +404,9 @@ public final class InfoCache {
         if (DEBUG) {
             Log.d(TAG, "clearCache() called");
         }
-        synchronized (LRU_CACHE) {
-            LRU_CACHE.evictAll();
+        synchronized (PARTITIONS) {
+            PARTITIONS.clear();
+            lastProfile = null;
         }
     }
 
@@ -146,29 +414,76 @@ public final class InfoCache {
         if (DEBUG) {
             Log.d(TAG, "trimCache() called");
         }
-        synchronized (LRU_CACHE) {
-            removeStaleCache();
-            LRU_CACHE.trimToSize(TRIM_CACHE_TO);
+        synchronized (PARTITIONS) {
+            for (final LruCache<String, CacheData> partition : PARTITIONS.values()) {
+                removeStaleCache(partition);
+                partition.trimToSize(TRIM_CACHE_TO * INFO_WEIGHT);
+            }
         }
     }
 
+    /**
+     * @return the number of entries (infos and summaries) in all partitions
+     */
     public long getSize() {
-        synchronized (LRU_CACHE) {
-            return LRU_CACHE.size();
+        synchronized (PARTITIONS) {
+            long size = 0;
+            for (final LruCache<String, CacheData> partition : PARTITIONS.values()) {
+                size += partition.snapshot().size();
+            }
+            return size;
         }
     }
 
+    /**
+     * Only the lookups of callers are counted, once per logical lookup: neither
+     * {@link #isCached(int, String, Type)} nor the fallback of summaries to full infos are.
+     *
+     * @return the number of lookups that found a valid entry, since the app was started or since
+     *         the last {@link #resetStats()}
+     */
+    public long getHitCount() {
+        return HITS.get();
+    }
+
+    /**
+     * @return the number of lookups that found no entry or an expired one, since the app was
+     *         started or since the last {@link #resetStats()}
+     */
+    public long getMissCount() {
+        return MISSES.get();
+    }
+
+    /**
+     * Resets the hit and miss counters, e.g. before recording a browsing session.
+     */
+    public void resetStats() {
+        HITS.set(0);
+        MISSES.set(0);
+    }
+
+    /**
+     * @return a human readable summary of the hit rate and size of the cache, e.g. to be logged
+     */
+    @NonNull
+    public String getStats() {
+        final long hits = HITS.get();
+        final long lookups = hits + MISSES.get();
+        return String.format(Locale.ROOT, "hits=%d lookups=%d hit rate=%.1f%% size=%d",
+                hits, lookups, lookups == 0 ? 0.0 : hits * 100.0 / lookups, getSize());
+    }
+
     private static final class CacheData {
         private final long expireTimestamp;
-        private final Info info;
+        private final Object value;
 
-        private CacheData(@NonNull final Info info, final long timeoutMillis) {
-            this.expireTimestamp = System.currentTimeMillis() + timeoutMillis;
-            this.info = info;
+        private CacheData(@NonNull final Object value, final long expireTimestamp) {
+            this.expireTimestamp = expireTimestamp;
+            this.value = value;
         }
 
         private boolean isExpired() {
             return System.currentTimeMillis() > expireTimestamp;
         }
     }
-}
\ No newline at end of file
+}
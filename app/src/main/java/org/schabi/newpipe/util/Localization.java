@@ -5,12 +5,14 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.content.res.Resources;
 import android.icu.text.CompactDecimalFormat;
+import android.icu.text.PluralRules;
 import android.os.Build;
 import android.text.BidiFormatter;
 import android.text.TextUtils;
 import android.text.format.DateUtils;
 import android.util.Log;
 
+import androidx.annotation.AnyThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.PluralsRes;
@@ -28,6 +30,8 @@ import org.schabi.newpipe.extractor.localization.ContentCountry;
 import org.schabi.newpipe.extractor.localization.DateWrapper;
 import org.schabi.newpipe.extractor.stream.AudioStream;
 import org.schabi.newpipe.extractor.stream.AudioTrackType;
+import org.schabi.newpipe.extractor.stream.StreamInfoItem;
+import org.schabi.newpipe.extractor.stream.StreamType;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -36,9 +40,12 @@ import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 
@@ -65,8 +72,11 @@ import java.util.stream.Collectors;
 public final class Localization {
     private static final String TAG = Localization.class.toString();
     public static final String DOT_SEPARATOR = " • ";
-    private static PrettyTime prettyTime;
-    
+    @Nullable
+    private static volatile Formatters formatters;
+    @Nullable
+    private static volatile RelativeTimeFormatter relativeTimeFormatter;
+
     private static boolean DEBUG = false;
 
     private Localization() { }
@@ -122,18 +132,30 @@ public final class Localization {
         return customLocale != null ? customLocale : Locale.getDefault();
     }
 
+    /**
+     * Drops the formatters cached for the current app locale, so that they are recreated with the
+     * new locale the next time they are needed. Has to be called whenever the app locale or the
+     * system locale change.
+     */
+    public static void clearFormatterCache() {
+        formatters = null;
+        relativeTimeFormatter = null;
+    }
+
     public static String localizeNumber(final long number) {
         return localizeNumber((double) number);
     }
 
     public static String localizeNumber(final double number) {
-        return NumberFormat.getInstance(getAppLocale()).format(number);
+        final NumberFormat numberFormat = getFormatters().numberFormat;
+        synchronized (numberFormat) {
+            return numberFormat.format(number);
+        }
     }
 
     public static String formatDate(@NonNull final OffsetDateTime offsetDateTime) {
-        return DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)
-            .withLocale(getAppLocale())
-            .format(offsetDateTime.atZoneSameInstant(ZoneId.systemDefault()));
+        return getFormatters().mediumDateFormatter
+                .format(offsetDateTime.atZoneSameInstant(ZoneId.systemDefault()));
     }
 
     @SuppressLint("StringFormatInvalid")
@@ -184,8 +206,10 @@ public final class Localization {
 
     public static String shortCount(@NonNull final Context context, final long count) {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-            return CompactDecimalFormat.getInstance(getAppLocale(),
-                    CompactDecimalFormat.CompactStyle.SHORT).format(count);
+            final CompactDecimalFormat compactFormat = getFormatters().compactFormat;
+            synchronized (compactFormat) {
+                return compactFormat.format(count);
+            }
         }
 
         final double value = (double) count;
@@ -369,10 +393,26 @@ public final class Localization {
     // Pretty Time
     //////////////////////////////////////////////////////////////////////////*/
 
+    /**
+     * @param time the {@link PrettyTime} to use from now on
+     */
     public static void initPrettyTime(@NonNull final PrettyTime time) {
-        prettyTime = time;
+        installPrettyTime(time);
+    }
+
+    /**
+     * @param time the {@link PrettyTime} to use from now on
+     * @return the formatter created for {@code time}, which callers should use rather than
+     *         reading {@link #relativeTimeFormatter} again, since a locale change could have
+     *         invalidated it in the meantime
+     */
+    @NonNull
+    private static RelativeTimeFormatter installPrettyTime(@NonNull final PrettyTime time) {
         // Do not use decades as YouTube doesn't either.
-        prettyTime.removeUnit(Decade.class);
+        time.removeUnit(Decade.class);
+        final RelativeTimeFormatter formatter = new RelativeTimeFormatter(time);
+        relativeTimeFormatter = formatter;
+        return formatter;
     }
 
     public static PrettyTime resolvePrettyTime() {
@@ -380,7 +420,17 @@ public final class Localization {
     }
 
     public static String relativeTime(@NonNull final OffsetDateTime offsetDateTime) {
-        return prettyTime.formatUnrounded(offsetDateTime);
+        return getRelativeTimeFormatter().format(offsetDateTime.toInstant().toEpochMilli());
+    }
+
+    @NonNull
+    private static RelativeTimeFormatter getRelativeTimeFormatter() {
+        RelativeTimeFormatter current = relativeTimeFormatter;
+        if (current == null) {
+            // either never initialized or invalidated by a locale change
+            current = installPrettyTime(resolvePrettyTime());
+        }
+        return current;
     }
 
     /**
@@ -409,6 +459,161 @@ public final class Localization {
         }
     }
 
+    /*//////////////////////////////////////////////////////////////////////////
+    // Batch formatting
+    //////////////////////////////////////////////////////////////////////////*/
+
+    /**
+     * Formats the metadata shown in list items for a whole page of streams at once, so that
+     * adapters only have to set the resulting texts when binding. Should usually be called off the
+     * main thread, e.g. right after a page has been loaded, but is fast enough to format a single
+     * page already in memory on the main thread.
+     * <br>
+     * The output is the same as calling {@link #shortViewCount(Context, long)} (or {@link
+     * #shortWatchingCount(Context, long)} and {@link #listeningCount(Context, long)} for live
+     * streams), {@link #relativeTimeOrTextual(Context, DateWrapper, String)} and {@link
+     * #getDurationString(long)} for every item, but a single {@link StringBuilder} is reused and
+     * quantity strings are looked up only once per plural category and formatted count.
+     *
+     * @param context the Android context, used to get the plurals resources
+     * @param items   the stream items to format the metadata of
+     * @return the metadata of each item, in the same order as {@code items}
+     */
+    @AnyThread
+    @NonNull
+    public static List<StreamItemMetadata> formatStreamItemsMetadata(
+            @NonNull final Context context,
+            @NonNull final List<? extends StreamInfoItem> items) {
+        final PluralRules pluralRules = getFormatters().pluralRules;
+        final QuantityCache listening = new QuantityCache(context, pluralRules,
+                R.plurals.listening, R.string.no_one_listening);
+        final QuantityCache watching = new QuantityCache(context, pluralRules,
+                R.plurals.watching, R.string.no_one_watching);
+        final QuantityCache views = new QuantityCache(context, pluralRules,
+                R.plurals.views, R.string.no_views);
+        final StringBuilder details = new StringBuilder();
+        final StringBuilder duration = new StringBuilder();
+        final List<StreamItemMetadata> result = new ArrayList<>(items.size());
+
+        for (final StreamInfoItem item : items) {
+            details.setLength(0);
+
+            final long viewCount = item.getViewCount();
+            if (viewCount >= 0) {
+                final StreamType streamType = item.getStreamType();
+                if (streamType == StreamType.AUDIO_LIVE_STREAM) {
+                    details.append(listening.get(viewCount));
+                } else if (streamType == StreamType.LIVE_STREAM) {
+                    details.append(watching.get(viewCount));
+                } else {
+                    details.append(views.get(viewCount));
+                }
+            }
+
+            final String uploadDate = relativeTimeOrTextual(null, item.getUploadDate(),
+                    item.getTextualUploadDate());
+            if (!TextUtils.isEmpty(uploadDate)) {
+                if (details.length() > 0) {
+                    details.append(DOT_SEPARATOR);
+                }
+                details.append(uploadDate);
+            }
+
+            final String durationText;
+            if (item.getDuration() > 0) {
+                durationText = DateUtils.formatElapsedTime(duration, item.getDuration());
+            } else {
+                durationText = "";
+            }
+
+            result.add(new StreamItemMetadata(details.toString(), durationText));
+        }
+        return result;
+    }
+
+    /**
+     * Like {@link #getQuantity(Context, int, int, long, String)} with a {@link #shortCount(Context,
+     * long)}, for a single plural resource, but reusing the strings already produced: first by
+     * exact count, which needs no formatting at all, and then by plural category and formatted
+     * count, which avoids the resource lookup (e.g. 1,234,567 and 1,230,000 views are both
+     * "1.2M views").
+     */
+    private static final class QuantityCache {
+        @NonNull
+        private final Context context;
+        @NonNull
+        private final PluralRules pluralRules;
+        @PluralsRes
+        private final int pluralId;
+        @StringRes
+        private final int zeroCaseStringId;
+        private final Map<Long, String> byCount = new HashMap<>();
+        private final Map<String, String> byCategoryAndFormattedCount = new HashMap<>();
+
+        QuantityCache(@NonNull final Context context,
+                      @NonNull final PluralRules pluralRules,
+                      @PluralsRes final int pluralId,
+                      @StringRes final int zeroCaseStringId) {
+            this.context = context;
+            this.pluralRules = pluralRules;
+            this.pluralId = pluralId;
+            this.zeroCaseStringId = zeroCaseStringId;
+        }
+
+        @NonNull
+        String get(final long count) {
+            String quantity = byCount.get(count);
+            if (quantity != null) {
+                return quantity;
+            }
+
+            final String formattedCount = shortCount(context, count);
+            // getQuantity() selects the plural with the count clamped to an int, so do the same
+            final String key = pluralRules.select(MathUtils.clamp(
+                    count, Integer.MIN_VALUE, Integer.MAX_VALUE)) + ":" + formattedCount;
+            quantity = byCategoryAndFormattedCount.get(key);
+            if (quantity == null) {
+                quantity = getQuantity(context, pluralId, zeroCaseStringId, count, formattedCount);
+                byCategoryAndFormattedCount.put(key, quantity);
+            }
+            byCount.put(count, quantity);
+            return quantity;
+        }
+    }
+
+    /**
+     * The metadata texts of a stream list item, as produced by
+     * {@link #formatStreamItemsMetadata(Context, List)}.
+     */
+    public static final class StreamItemMetadata {
+        @NonNull
+        private final String details;
+        @NonNull
+        private final String duration;
+
+        StreamItemMetadata(@NonNull final String details, @NonNull final String duration) {
+            this.details = details;
+            this.duration = duration;
+        }
+
+        /**
+         * @return the view (or watching/listening) count and the upload date, separated by
+         *         {@link #DOT_SEPARATOR}
+         */
+        @NonNull
+        public CharSequence getDetails() {
+            return details;
+        }
+
+        /**
+         * @return the formatted duration, or an empty string if unknown (e.g. for live streams)
+         */
+        @NonNull
+        public CharSequence getDuration() {
+            return duration;
+        }
+    }
+
     private static Locale getLocaleFromPrefs(@NonNull final Context context,
                                              @StringRes final int prefKey) {
         final SharedPreferences sp = PreferenceManager.getDefaultSharedPreferences(context);
@@ -465,6 +670,7 @@ public final class Localization {
                 try {
                     AppCompatDelegate.setApplicationLocales(
                         LocaleListCompat.forLanguageTags(appLanguageValue));
+                    clearFormatterCache();
                 } catch (final RuntimeException e) {
                     Log.e(TAG, "Failed to migrate previous custom app language "
                             + "setting to public per-app language APIs"
@@ -473,4 +679,52 @@ public final class Localization {
             }
         }
     }
-}
\ No newline at end of file
+
+    /*//////////////////////////////////////////////////////////////////////////
+    // Cached formatters
+    //////////////////////////////////////////////////////////////////////////*/
+
+    /**
+     * Resolving the app locale and creating {@link NumberFormat}s, {@link CompactDecimalFormat}s
+     * and {@link DateTimeFormatter}s is expensive, and these are needed for every bound list item,
+     * so they are created once per locale and reused until {@link #clearFormatterCache()}.
+     */
+    @NonNull
+    private static Formatters getFormatters() {
+        Formatters current = formatters;
+        if (current == null) {
+            current = new Formatters(getAppLocale());
+            formatters = current;
+        }
+        return current;
+    }
+
+    /**
+     * Formatters bound to a single locale. {@link DateTimeFormatter} is immutable and thread-safe,
+     * while {@link NumberFormat} and {@link CompactDecimalFormat} are not, so callers have to
+     * synchronize on them while formatting.
+     */
+    private static final class Formatters {
+        @NonNull
+        final NumberFormat numberFormat;
+        @NonNull
+        final CompactDecimalFormat compactFormat;
+        @NonNull
+        final DateTimeFormatter mediumDateFormatter;
+        /**
+         * The plural rules of the app locale, i.e. the ones used by the resources to select
+         * quantity strings.
+         */
+        @NonNull
+        final PluralRules pluralRules;
+
+        Formatters(@NonNull final Locale locale) {
+            this.numberFormat = NumberFormat.getInstance(locale);
+            this.compactFormat = CompactDecimalFormat.getInstance(locale,
+                    CompactDecimalFormat.CompactStyle.SHORT);
+            this.mediumDateFormatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)
+                    .withLocale(locale);
+            this.pluralRules = PluralRules.forLocale(locale);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.schabi.newpipe.util;
+
+import androidx.annotation.NonNull;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+
+/**
+ * The {@link OkHttpClient} all other clients of the app are derived from, through
+ * {@link #newBuilder(Purpose)}, so that they share one connection pool and one thread pool
+ * instead of each having their own: extraction and image loading mostly talk to the same
+ * Google hosts, and a connection opened by one can be reused by the other.
+ * <br>
+ * Each {@link Purpose} gets its own {@link Dispatcher} limits (on top of the shared thread pool),
+ * so that e.g. a burst of thumbnail loads can not starve extraction. Interceptors and metrics
+ * that apply to all requests belong here; {@link #getStats()} tells how many calls were made
+ * and how many of them could reuse a pooled connection.
+ */
+public final class OkHttpCore {
+    public enum Purpose {
+        EXTRACTION(32, 8),
+        IMAGES(64, 8);
+
+        private final int maxRequests;
+        private final int maxRequestsPerHost;
+
+        Purpose(final int maxRequests, final int maxRequestsPerHost) {
+            this.maxRequests = maxRequests;
+            this.maxRequestsPerHost = maxRequestsPerHost;
+        }
+    }
+
+    private static final AtomicLong CALLS = new AtomicLong();
+    private static final AtomicLong CONNECTIONS_ACQUIRED = new AtomicLong();
+    private static final AtomicLong CONNECTIONS_OPENED = new AtomicLong();
+
+    private static final OkHttpClient CLIENT = new OkHttpClient.Builder()
+            // both extraction and images talk to a handful of hosts, so keep more idle
+            // connections around than OkHttp's default to avoid new TLS handshakes
+            .connectionPool(new ConnectionPool(10, 5, TimeUnit.MINUTES))
+            .connectTimeout(15, TimeUnit.SECONDS)
+            .eventListener(new MetricsListener())
+            .build();
+
+    private static final Map<Purpose, Dispatcher> DISPATCHERS = new EnumMap<>(Purpose.class);
+
+    static {
+        for (final Purpose purpose : Purpose.values()) {
+            // dispatchers only differ by their limits, the threads are the shared ones
+            final Dispatcher dispatcher = new Dispatcher(CLIENT.dispatcher().executorService());
+            dispatcher.setMaxRequests(purpose.maxRequests);
+            dispatcher.setMaxRequestsPerHost(purpose.maxRequestsPerHost);
+            DISPATCHERS.put(purpose, dispatcher);
+        }
+    }
+
+    private OkHttpCore() {
+        // no instance
+    }
+
+    /**
+     * @param purpose what the client will be used for
+     * @return a builder sharing the connection pool, thread pool, timeouts and metrics of the
+     *         core client, to which purpose-specific settings (e.g. a disk cache) can be added
+     */
+    @NonNull
+    public static OkHttpClient.Builder newBuilder(@NonNull final Purpose purpose) {
+        return CLIENT.newBuilder()
+                .dispatcher(DISPATCHERS.get(purpose));
+    }
+
+    /**
+     * @return a human readable summary of the calls made and of connection reuse since the app
+     *         was started, e.g. to be logged
+     */
+    @NonNull
+    public static String getStats() {
+        final long acquired = CONNECTIONS_ACQUIRED.get();
+        final long opened = CONNECTIONS_OPENED.get();
+        return String.format(Locale.ROOT,
+                "calls=%d connections acquired=%d opened=%d reuse=%.1f%% pooled=%d idle=%d",
+                CALLS.get(), acquired, opened,
+                acquired == 0 ? 0.0 : (acquired - opened) * 100.0 / acquired,
+                CLIENT.connectionPool().connectionCount(),
+                CLIENT.connectionPool().idleConnectionCount());
+    }
+
+    private static final class MetricsListener extends EventListener {
+        @Override
+        public void callStart(@NonNull final Call call) {
+            CALLS.incrementAndGet();
+        }
+
+        @Override
+        public void connectStart(@NonNull final Call call,
+                                 @NonNull final InetSocketAddress inetSocketAddress,
+                                 @NonNull final Proxy proxy) {
+            CONNECTIONS_OPENED.incrementAndGet();
+        }
+
+        @Override
+        public void connectionAcquired(@NonNull final Call call,
+                                       @NonNull final Connection connection) {
+            CONNECTIONS_ACQUIRED.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.schabi.newpipe.util;
+
+import androidx.annotation.NonNull;
+
+import org.ocpsoft.prettytime.PrettyTime;
+import org.ocpsoft.prettytime.TimeUnit;
+import org.ocpsoft.prettytime.impl.DurationImpl;
+import org.ocpsoft.prettytime.units.JustNow;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A fast replacement for {@link PrettyTime#formatUnrounded(java.util.Date)}, producing exactly the
+ * same strings while avoiding most of its cost, since it is called for every bound list item.
+ * <br>
+ * {@link PrettyTime} picks the time unit by walking through all of its units for every call, and
+ * then formats the resulting (unit, quantity) pair from scratch. But the unrounded output only
+ * depends on that pair, so here the unit boundaries are computed once, and the string for each
+ * (unit, quantity) pair is formatted by {@link PrettyTime} only the first time it is needed. As
+ * YouTube does not use decades, there are very few such pairs (e.g. at most 59 minutes, 23
+ * hours, and so on), hence the cache never grows large.
+ * <br>
+ * The reference time is refreshed at most once per {@link #REFERENCE_REFRESH_MILLIS}, as it makes
+ * no sense to read the clock for every item when the smallest unit shown is a minute.
+ * <br>
+ * Instances are bound to the locale of the {@link PrettyTime} they were created with, and are
+ * thread-safe.
+ */
+final class RelativeTimeFormatter {
+    static final long REFERENCE_REFRESH_MILLIS = 60 * 1000L;
+
+    // quantities are always much smaller than this, so it can be used to build cache keys
+    private static final long UNIT_KEY_MULTIPLIER = 1L << 40;
+
+    @NonNull
+    private final PrettyTime prettyTime;
+    @NonNull
+    private final TimeUnit[] units;
+    @NonNull
+    private final long[] unitMillis;
+    /**
+     * A time difference belongs to the first unit {@code i} for which
+     * {@code |difference| < unitUpperBounds[i]}.
+     */
+    @NonNull
+    private final long[] unitUpperBounds;
+    private final Map<Long, String> formattedCache = new ConcurrentHashMap<>();
+
+    private volatile long referenceMillis;
+
+    RelativeTimeFormatter(@NonNull final PrettyTime prettyTime) {
+        this.prettyTime = prettyTime;
+
+        // the units are sorted by PrettyTime, from the smallest to the biggest one
+        final List<TimeUnit> unitList = prettyTime.getUnits();
+        final int unitCount = unitList.size();
+        units = unitList.toArray(new TimeUnit[0]);
+        unitMillis = new long[unitCount];
+        unitUpperBounds = new long[unitCount];
+
+        // this mirrors the logic in PrettyTime.calculateDuration()
+        for (int i = 0; i < unitCount; ++i) {
+            unitMillis[i] = Math.abs(units[i].getMillisPerUnit());
+            if (i == unitCount - 1) {
+                unitUpperBounds[i] = Long.MAX_VALUE; // the last unit encompasses everything
+            } else {
+                long maxQuantity = Math.abs(units[i].getMaxQuantity());
+                if (maxQuantity == 0) {
+                    maxQuantity = units[i + 1].getMillisPerUnit() / units[i].getMillisPerUnit();
+                }
+                unitUpperBounds[i] = unitMillis[i] * maxQuantity;
+            }
+        }
+
+        referenceMillis = System.currentTimeMillis();
+    }
+
+    @NonNull
+    String format(final long thenMillis) {
+        final long now = System.currentTimeMillis();
+        long reference = referenceMillis;
+        if (now - reference >= REFERENCE_REFRESH_MILLIS || now < reference) {
+            reference = now;
+            referenceMillis = now;
+        }
+        return format(thenMillis, reference);
+    }
+
+    @NonNull
+    String format(final long thenMillis, final long reference) {
+        final long difference = thenMillis - reference;
+        final long absoluteDifference = Math.abs(difference);
+
+        int unitIndex = 0;
+        while (absoluteDifference >= unitUpperBounds[unitIndex]) {
+            ++unitIndex;
+        }
+
+        final long quantity;
+        if (unitMillis[unitIndex] > absoluteDifference || units[unitIndex] instanceof JustNow) {
+            // rounding up to 1 or -1, as PrettyTime does; "just now" ignores the quantity anyway
+            quantity = difference < 0 ? -1 : 1;
+        } else {
+            quantity = difference / unitMillis[unitIndex];
+        }
+
+        final long key = unitIndex * UNIT_KEY_MULTIPLIER + quantity;
+        final String cached = formattedCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final DurationImpl duration = new DurationImpl();
+        duration.setUnit(units[unitIndex]);
+        duration.setQuantity(quantity);
+        duration.setDelta(0);
+        final String formatted = prettyTime.formatUnrounded(duration);
+        formattedCache.put(key, formatted);
+        return formatted;
+    }
+}
@@ -29,8 +29,9 @@ public final class StateSaver {
             new ConcurrentHashMap<>();
     private static final String TAG = "StateSaver";
     private static final String CACHE_DIR_NAME = "state_cache";
-    private static String cacheDirPath;
-    private static final boolean DEBUG = true; // now static
+    // set in the background during startup
+    private static volatile String cacheDirPath;
+    private static final boolean DEBUG = Tracer.DEBUG;
 
     private StateSaver() {
         // no instance
@@ -53,7 +54,12 @@ public final class StateSaver {
         final SavedState savedState = BundleCompat.getParcelable(outState, KEY_SAVED_STATE, SavedState.class);
         if (savedState == null) return null;
 
-        return tryToRestore(savedState, writeRead);
+        final boolean traced = Tracer.beginSection("StateSaver.restore");
+        try {
+            return tryToRestore(savedState, writeRead);
+        } finally {
+            Tracer.endSection(traced);
+        }
     }
 
     @Nullable
@@ -94,8 +100,14 @@ public final class StateSaver {
                 ? System.nanoTime() - writeRead.hashCode() + ""
                 : savedState.getPrefixFileSaved();
 
-        final SavedState newSavedState = tryToSave(isChangingConfig, currentPrefix,
-                writeRead.generateSuffix(), writeRead);
+        final SavedState newSavedState;
+        final boolean traced = Tracer.beginSection("StateSaver.save");
+        try {
+            newSavedState = tryToSave(isChangingConfig, currentPrefix,
+                    writeRead.generateSuffix(), writeRead);
+        } finally {
+            Tracer.endSection(traced);
+        }
 
         if (newSavedState != null && outState != null) {
             outState.putParcelable(KEY_SAVED_STATE, newSavedState);
@@ -159,6 +171,20 @@ public final class StateSaver {
         }
     }
 
+    /**
+     * Drops the states kept in memory for configuration changes, e.g. on memory pressure. States
+     * that were also written to disk can still be restored from there.
+     *
+     * @return the number of states dropped
+     */
+    public static int clearStateObjectsHolder() {
+        if (DEBUG) Log.d(TAG, "clearStateObjectsHolder() called");
+
+        final int size = STATE_OBJECTS_HOLDER.size();
+        STATE_OBJECTS_HOLDER.clear();
+        return size;
+    }
+
     public static void clearStateFiles() {
         if (DEBUG) Log.d(TAG, "clearStateFiles() called");
 
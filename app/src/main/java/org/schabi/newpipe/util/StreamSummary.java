@@ -0,0 +1,122 @@
+package org.schabi.newpipe.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.schabi.newpipe.extractor.stream.StreamInfo;
+import org.schabi.newpipe.extractor.stream.StreamType;
+import org.schabi.newpipe.util.image.ImageStrategy;
+
+/**
+ * The parts of a {@link StreamInfo} needed to show a stream outside of its detail page, i.e.
+ * without the stream variants, subtitles, related items and description that make up most of
+ * a full info. Uploader names and urls are shared between summaries through
+ * {@link StringInterner}.
+ * <br>
+ * Obtained through {@link ExtractorHelper#getStreamSummary(int, String, boolean)}.
+ */
+public final class StreamSummary {
+    private final int serviceId;
+    @NonNull
+    private final String url;
+    @NonNull
+    private final String name;
+    @NonNull
+    private final StreamType streamType;
+    @Nullable
+    private final String thumbnailUrl;
+    @Nullable
+    private final String uploaderName;
+    @Nullable
+    private final String uploaderUrl;
+    @Nullable
+    private final String uploaderAvatarUrl;
+    @Nullable
+    private final String textualUploadDate;
+    private final long durationSeconds;
+    private final long viewCount;
+    private final long likeCount;
+
+    private StreamSummary(@NonNull final StreamInfo info) {
+        serviceId = info.getServiceId();
+        url = info.getUrl();
+        name = info.getName();
+        streamType = info.getStreamType();
+        thumbnailUrl = ImageStrategy.choosePreferredImage(info.getThumbnails());
+        uploaderName = StringInterner.intern(info.getUploaderName());
+        uploaderUrl = StringInterner.intern(info.getUploaderUrl());
+        uploaderAvatarUrl = StringInterner.intern(
+                ImageStrategy.choosePreferredImage(info.getUploaderAvatars()));
+        textualUploadDate = info.getTextualUploadDate();
+        durationSeconds = info.getDuration();
+        viewCount = info.getViewCount();
+        likeCount = info.getLikeCount();
+    }
+
+    @NonNull
+    static StreamSummary from(@NonNull final StreamInfo info) {
+        return new StreamSummary(info);
+    }
+
+    public int getServiceId() {
+        return serviceId;
+    }
+
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @NonNull
+    public StreamType getStreamType() {
+        return streamType;
+    }
+
+    @Nullable
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    @Nullable
+    public String getUploaderName() {
+        return uploaderName;
+    }
+
+    @Nullable
+    public String getUploaderUrl() {
+        return uploaderUrl;
+    }
+
+    @Nullable
+    public String getUploaderAvatarUrl() {
+        return uploaderAvatarUrl;
+    }
+
+    @Nullable
+    public String getTextualUploadDate() {
+        return textualUploadDate;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public long getViewCount() {
+        return viewCount;
+    }
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "StreamSummary{serviceId=" + serviceId + ", url=" + url + ", name=" + name + "}";
+    }
+}
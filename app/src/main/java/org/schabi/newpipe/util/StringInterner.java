@@ -0,0 +1,42 @@
+package org.schabi.newpipe.util;
+
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Deduplicates strings which are repeated across many summaries (e.g. the name and url of an
+ * uploader shared by all of the streams of a channel), so that only one copy is retained.
+ * Unlike {@link String#intern()}, entries are weakly referenced and go away with the summaries
+ * using them.
+ */
+final class StringInterner {
+    private static final WeakHashMap<String, WeakReference<String>> POOL = new WeakHashMap<>();
+
+    private StringInterner() {
+        // no instance
+    }
+
+    /**
+     * @param string the string to deduplicate
+     * @return a string equal to {@code string}, shared with all other callers passing an equal
+     *         string, or {@code null} if {@code string} is {@code null}
+     */
+    @Nullable
+    static String intern(@Nullable final String string) {
+        if (string == null) {
+            return null;
+        }
+
+        synchronized (POOL) {
+            final WeakReference<String> reference = POOL.get(string);
+            final String pooled = reference == null ? null : reference.get();
+            if (pooled != null) {
+                return pooled;
+            }
+            POOL.put(string, new WeakReference<>(string));
+            return string;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.schabi.newpipe.util;
+
+import android.os.Build;
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+import com.nidoham.openstream.BuildConfig;
+
+/**
+ * Debug logging and {@link Trace} sections which cost next to nothing when they are not needed.
+ * <br>
+ * Debug logs have to be guarded by {@link #DEBUG}, so that release builds never build the log
+ * messages (which often call {@code toString()} on large objects). Trace sections only emit
+ * anything while the app is being traced (e.g. by Perfetto), and are used as follows:
+ * <pre>{@code
+ * final boolean traced = Tracer.beginSection("InfoCache.get");
+ * try {
+ *     ...
+ * } finally {
+ *     Tracer.endSection(traced);
+ * }
+ * }</pre>
+ * Section names should be constants, as they are passed even when tracing is disabled.
+ */
+public final class Tracer {
+    /**
+     * Whether debug logs are enabled, i.e. whether this is a debug build.
+     */
+    public static final boolean DEBUG = BuildConfig.DEBUG;
+
+    // longer section names make Trace.beginSection() throw
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    private Tracer() {
+        // no instance
+    }
+
+    /**
+     * @return whether the app is currently being traced; always {@code true} in debug builds
+     *         before Android 10, where this can not be known
+     */
+    public static boolean isTracing() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            return Trace.isEnabled();
+        }
+        return DEBUG;
+    }
+
+    /**
+     * Begins a trace section on the current thread, if the app is being traced.
+     *
+     * @param name the name of the section
+     * @return whether a section was begun, to be passed to {@link #endSection(boolean)}
+     */
+    public static boolean beginSection(@NonNull final String name) {
+        if (!isTracing()) {
+            return false;
+        }
+        Trace.beginSection(name.length() > MAX_SECTION_NAME_LENGTH
+                ? name.substring(0, MAX_SECTION_NAME_LENGTH) : name);
+        return true;
+    }
+
+    /**
+     * Ends the section begun by the matching {@link #beginSection(String)} call.
+     *
+     * @param begun what {@link #beginSection(String)} returned
+     */
+    public static void endSection(final boolean begun) {
+        if (begun) {
+            Trace.endSection();
+        }
+    }
+}
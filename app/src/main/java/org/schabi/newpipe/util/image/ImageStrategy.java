@@ -18,7 +18,8 @@ public final class ImageStrategy {
     private static final int BEST_LOW_H = 75;
     private static final int BEST_MEDIUM_H = 250;
 
-    private static PreferredImageQuality preferredImageQuality = PreferredImageQuality.MEDIUM;
+    // read from the preferences in the background during startup
+    private static volatile PreferredImageQuality preferredImageQuality = PreferredImageQuality.MEDIUM;
 
     private ImageStrategy() {
     }
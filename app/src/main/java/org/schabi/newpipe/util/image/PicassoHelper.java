@@ -4,13 +4,20 @@ import static org.schabi.newpipe.extractor.utils.Utils.isNullOrEmpty;
 import static org.schabi.newpipe.util.image.ImageStrategy.choosePreferredImage;
 
 import android.annotation.SuppressLint;
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.graphics.Bitmap;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
 import android.util.Log;
 
 import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import androidx.core.graphics.BitmapCompat;
 
 import com.squareup.picasso.Cache;
@@ -22,10 +29,13 @@ import com.squareup.picasso.Transformation;
 
 import com.nidoham.openstream.R;
 import org.schabi.newpipe.extractor.Image;
+import org.schabi.newpipe.util.OkHttpCore;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.OkHttpClient;
@@ -34,9 +44,21 @@ public final class PicassoHelper {
     private static final String TAG = PicassoHelper.class.getSimpleName();
     private static final String PLAYER_THUMBNAIL_TRANSFORMATION_KEY =
             "PICASSO_PLAYER_THUMBNAIL_TRANSFORMATION_KEY";
-            
+    private static final String PRELOAD_TAG = "PICASSO_PRELOAD_TAG";
+
+    // maximum number of images fetched by a single preloadImages() call, depending on the network
+    private static final int PRELOAD_BUDGET_UNMETERED = 30;
+    private static final int PRELOAD_BUDGET_METERED = 6;
+
     private static boolean DEBUG = false ;
 
+    // kept up to date by network callbacks, so that preloading never queries the network state
+    // (binder calls) on the main thread, see watchPreloadBudget()
+    private static volatile int preloadBudget = PRELOAD_BUDGET_METERED;
+    // whether the default network is metered, as last reported by the network callback
+    private static volatile boolean defaultNetworkMetered = true;
+    private static boolean watchingPreloadBudget = false;
+
     private PicassoHelper() {
     }
 
@@ -50,7 +72,7 @@ public final class PicassoHelper {
 
     public static void init(final Context context) {
         picassoCache = new LruCache(10 * 1024 * 1024);
-        picassoDownloaderClient = new OkHttpClient.Builder()
+        picassoDownloaderClient = OkHttpCore.newBuilder(OkHttpCore.Purpose.IMAGES)
                 .cache(new okhttp3.Cache(new File(context.getExternalCacheDir(), "picasso"),
                         50L * 1024L * 1024L))
                 // this should already be the default timeout in OkHttp3, but just to be sure...
@@ -62,6 +84,50 @@ public final class PicassoHelper {
                 .downloader(new OkHttp3Downloader(picassoDownloaderClient)) // disk cache
                 .defaultBitmapConfig(Bitmap.Config.RGB_565)
                 .build();
+
+        watchPreloadBudget(context.getApplicationContext());
+    }
+
+    private static synchronized void watchPreloadBudget(@NonNull final Context context) {
+        if (watchingPreloadBudget) {
+            return; // init() is called again by clearCache()
+        }
+        final ConnectivityManager connectivityManager =
+                context.getSystemService(ConnectivityManager.class);
+        if (connectivityManager == null) {
+            return;
+        }
+        watchingPreloadBudget = true;
+
+        defaultNetworkMetered = connectivityManager.isActiveNetworkMetered();
+        preloadBudget = getPreloadBudget(connectivityManager);
+        connectivityManager.registerDefaultNetworkCallback(
+                new ConnectivityManager.NetworkCallback() {
+                    @Override
+                    public void onCapabilitiesChanged(
+                            @NonNull final Network network,
+                            @NonNull final NetworkCapabilities networkCapabilities) {
+                        // use the capabilities of the new network, querying the active network
+                        // again could still return the previous one
+                        defaultNetworkMetered = !networkCapabilities.hasCapability(
+                                NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+                        preloadBudget = getPreloadBudget(connectivityManager);
+                    }
+
+                    @Override
+                    public void onLost(@NonNull final Network network) {
+                        defaultNetworkMetered = true;
+                        preloadBudget = getPreloadBudget(connectivityManager);
+                    }
+                });
+        // Data Saver can be toggled without any network change
+        ContextCompat.registerReceiver(context, new BroadcastReceiver() {
+            @Override
+            public void onReceive(final Context receiverContext, final Intent intent) {
+                preloadBudget = getPreloadBudget(connectivityManager);
+            }
+        }, new IntentFilter(ConnectivityManager.ACTION_RESTRICT_BACKGROUND_CHANGED),
+                ContextCompat.RECEIVER_NOT_EXPORTED);
     }
 
     public static void terminate() {
@@ -84,6 +150,23 @@ public final class PicassoHelper {
         init(context);
     }
 
+    /**
+     * Clears the in-memory bitmap cache only, e.g. on memory pressure. Images are then loaded
+     * again from the disk cache when needed.
+     *
+     * @return the number of bytes released
+     */
+    public static long clearMemoryCache() {
+        final Cache cache = picassoCache;
+        if (cache == null) {
+            return 0;
+        }
+
+        final long sizeBefore = cache.size();
+        cache.clear();
+        return sizeBefore - cache.size();
+    }
+
     public static void cancelTag(final Object tag) {
         picassoInstance.cancelTag(tag);
     }
@@ -184,6 +267,72 @@ public final class PicassoHelper {
                 });
     }
 
+    /**
+     * Warms up the memory and disk caches with the images that are likely to be shown soon, e.g.
+     * the thumbnails of the next page of a kiosk or of search results, or the header of a details
+     * page the user is about to open. For every list of images the URL is chosen with {@link
+     * ImageStrategy#choosePreferredImage(List)}, so exactly the same URL that will later be
+     * requested by {@link #loadThumbnail(List)} and similar methods gets cached.
+     * <br>
+     * Images are fetched with {@link Picasso.Priority#LOW} so that they never delay images that
+     * are actually being displayed. Nothing is preloaded when Data Saver is enabled, and only a
+     * few images are preloaded on metered networks. Images already in the memory cache are
+     * skipped and do not count towards this budget.
+     *
+     * @param imageBatches the image lists (one per item) to preload, in order of priority
+     * @return the number of image fetches that were actually started
+     */
+    public static int preloadImages(@NonNull final List<List<Image>> imageBatches) {
+        if (picassoInstance == null || !ImageStrategy.shouldLoadImages()) {
+            return 0;
+        }
+
+        final int budget = preloadBudget;
+        final Set<String> urls = new LinkedHashSet<>();
+        for (final List<Image> images : imageBatches) {
+            if (urls.size() >= budget) {
+                break;
+            }
+            final String url = choosePreferredImage(images);
+            if (!isNullOrEmpty(url) && getImageFromCacheIfPresent(url) == null) {
+                urls.add(url);
+            }
+        }
+
+        for (final String url : urls) {
+            picassoInstance.load(url)
+                    .priority(Picasso.Priority.LOW)
+                    .tag(PRELOAD_TAG)
+                    .fetch();
+        }
+
+        if (DEBUG) {
+            Log.d(TAG, "preloadImages() started " + urls.size() + " fetches, budget = " + budget);
+        }
+        return urls.size();
+    }
+
+    /**
+     * Cancels all of the fetches started by {@link #preloadImages(List)} which have not
+     * completed yet, e.g. because the user navigated away from the list they were meant for.
+     */
+    public static void cancelPreloads() {
+        if (picassoInstance != null) {
+            picassoInstance.cancelTag(PRELOAD_TAG);
+        }
+    }
+
+    private static int getPreloadBudget(@NonNull final ConnectivityManager connectivityManager) {
+        if (connectivityManager.getRestrictBackgroundStatus()
+                == ConnectivityManager.RESTRICT_BACKGROUND_STATUS_ENABLED) {
+            return 0; // the user enabled Data Saver, do not download anything speculatively
+        } else if (defaultNetworkMetered) {
+            return PRELOAD_BUDGET_METERED;
+        } else {
+            return PRELOAD_BUDGET_UNMETERED;
+        }
+    }
+
     @Nullable
     public static Bitmap getImageFromCacheIfPresent(@NonNull final String imageUrl) {
         // URLs in the internal cache finish with \n so we need to add \n to image URLs
@@ -0,0 +1,133 @@
+package com.nidoham.openstream.activities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import android.view.View;
+
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.Lifecycle;
+
+import com.google.android.material.tabs.TabLayout;
+import com.nidoham.openstream.R;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+
+/**
+ * Checks that switching tabs in {@link MainActivity} keeps the fragments of the other tabs alive
+ * and hidden, instead of recreating them and reloading their content, and that hidden tabs are
+ * capped at {@link Lifecycle.State#STARTED}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MainActivityTest {
+    private static final int FEED = 0;
+    private static final int LIVE = 1;
+    private static final int SUBSCRIPTIONS = 2;
+    private static final int BOOKMARKS = 3;
+
+    private ActivityController<MainActivity> controller;
+
+    @Before
+    public void setUp() {
+        controller = Robolectric.buildActivity(MainActivity.class).setup();
+    }
+
+    @After
+    public void tearDown() {
+        controller.pause().stop().destroy();
+    }
+
+    private void selectTab(final int position) {
+        final TabLayout tabs = controller.get().findViewById(R.id.tabs);
+        tabs.selectTab(tabs.getTabAt(position));
+        // the fragment transaction is committed asynchronously
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private Fragment getTabFragment(final int position) {
+        return controller.get().getSupportFragmentManager()
+                .findFragmentByTag(MainActivity.TAB_FRAGMENT_TAGS[position]);
+    }
+
+    private void assertShown(final int position) {
+        final Fragment fragment = getTabFragment(position);
+        assertNotNull(fragment);
+        assertFalse(fragment.isHidden());
+        assertEquals(Lifecycle.State.RESUMED, fragment.getLifecycle().getCurrentState());
+    }
+
+    private void assertHidden(final int position) {
+        final Fragment fragment = getTabFragment(position);
+        assertNotNull(fragment);
+        assertTrue(fragment.isHidden());
+        assertEquals(Lifecycle.State.STARTED, fragment.getLifecycle().getCurrentState());
+    }
+
+    @Test
+    public void tabsAreCreatedWhenFirstSelected() {
+        assertShown(FEED);
+        assertNull(getTabFragment(LIVE));
+        assertNull(getTabFragment(SUBSCRIPTIONS));
+        assertNull(getTabFragment(BOOKMARKS));
+
+        selectTab(SUBSCRIPTIONS);
+        assertShown(SUBSCRIPTIONS);
+        assertHidden(FEED);
+        assertNull(getTabFragment(LIVE));
+    }
+
+    @Test
+    public void hiddenTabsAreCappedAtStarted() {
+        selectTab(LIVE);
+        selectTab(SUBSCRIPTIONS);
+        selectTab(BOOKMARKS);
+
+        assertHidden(FEED);
+        assertHidden(LIVE);
+        assertHidden(SUBSCRIPTIONS);
+        assertShown(BOOKMARKS);
+    }
+
+    @Test
+    public void tabsAreNotRecreated() {
+        final Fragment feed = getTabFragment(FEED);
+        final View feedView = feed.getView();
+        selectTab(LIVE);
+        final Fragment live = getTabFragment(LIVE);
+
+        selectTab(FEED);
+        selectTab(LIVE);
+        selectTab(FEED);
+
+        assertSame(feed, getTabFragment(FEED));
+        // not even their views, so lists keep their items and scroll position
+        assertSame(feedView, feed.getView());
+        assertSame(live, getTabFragment(LIVE));
+        assertShown(FEED);
+        assertHidden(LIVE);
+    }
+
+    @Test
+    public void selectedTabSurvivesRecreation() {
+        selectTab(BOOKMARKS);
+
+        controller.recreate();
+
+        assertShown(BOOKMARKS);
+        assertHidden(FEED);
+        assertEquals(BOOKMARKS, ((TabLayout) controller.get().findViewById(R.id.tabs))
+                .getSelectedTabPosition());
+    }
+}
@@ -0,0 +1,148 @@
+package com.nidoham.openstream.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import android.content.ContentValues;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.schabi.newpipe.extractor.InfoItem;
+import org.schabi.newpipe.extractor.ListExtractor.InfoItemsPage;
+import org.schabi.newpipe.extractor.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the title prefix filter and the keyset pagination of {@link BookmarkStore}, in
+ * particular across bookmarks sharing the same sort key, where an off-by-one would skip or
+ * repeat bookmarks at page boundaries.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BookmarkStoreTest {
+    private static final int PAGE_SIZE = 3;
+
+    private SQLiteDatabase db;
+    private BookmarkStore store;
+    private int inserted = 0;
+
+    @Before
+    public void setUp() {
+        db = AppDatabaseHelper.getInstance(RuntimeEnvironment.getApplication())
+                .getWritableDatabase();
+        db.delete(BookmarkStore.TABLE_BOOKMARKS, null, null);
+        store = new BookmarkStore(RuntimeEnvironment.getApplication());
+    }
+
+    private void insert(final String title, final long addedTime) {
+        final ContentValues values = new ContentValues();
+        values.put("service_id", 0);
+        values.put("url", "https://example.com/watch?v=" + inserted++);
+        values.put("info_type", InfoItem.InfoType.STREAM.name());
+        values.put("title", title);
+        values.put("duration", 60);
+        values.put("stream_count", -1);
+        values.put("added_time", addedTime);
+        db.insertOrThrow(BookmarkStore.TABLE_BOOKMARKS, null, values);
+    }
+
+    private void insertTitles(final String... titles) {
+        for (final String title : titles) {
+            insert(title, 0);
+        }
+    }
+
+    /**
+     * @return the titles of all pages, read {@link #PAGE_SIZE} at a time
+     */
+    private List<String> readAllPages(final String titlePrefix) {
+        final List<String> titles = new ArrayList<>();
+        Page page = null;
+        do {
+            final InfoItemsPage<InfoItem> result = store.getPage(titlePrefix, page, PAGE_SIZE);
+            for (final InfoItem item : result.getItems()) {
+                titles.add(item.getName());
+            }
+            page = result.getNextPage();
+        } while (page != null);
+        return titles;
+    }
+
+    @Test
+    public void prefixIgnoresCase() {
+        insertTitles("Banana", "APPLESAUCE", "ap", "apple pie", "Apple", "pineapple");
+
+        assertEquals(List.of("Apple", "apple pie", "APPLESAUCE"), readAllPages("aPp"));
+    }
+
+    @Test
+    public void prefixIsMatchedLiterally() {
+        insertTitles("100% Pure", "100 Songs", "1000 Songs", "a_b", "axb", "a\\b", "a\\\\b");
+
+        assertEquals(List.of("100% Pure"), readAllPages("100%"));
+        assertEquals(List.of("a_b"), readAllPages("a_"));
+        assertEquals(List.of("a\\b"), readAllPages("a\\b"));
+    }
+
+    @Test
+    public void prefixBeforeUpperCaseLetters() {
+        // '@' comes right before 'A', which NOCASE compares as 'a', i.e. after '['
+        insertTitles("a@", "a@b", "aA", "a[", "a`");
+
+        assertEquals(List.of("a@", "a@b"), readAllPages("a@"));
+        assertEquals(List.of("a["), readAllPages("A["));
+    }
+
+    @Test
+    public void prefixWithNonAsciiCharacters() {
+        // NOCASE only folds ASCII letters
+        insertTitles("Émile", "émile", "émilie", "🎵 Music", "🎶 Songs",
+                "\uDBFF\uDFFF end", "\uDBFF\uDFFF\uDBFF\uDFFF end");
+
+        assertEquals(List.of("émile", "émilie"), readAllPages("émil"));
+        assertEquals(List.of("🎵 Music"), readAllPages("🎵"));
+        // nothing comes after U+10FFFF, so there is no upper bound
+        assertEquals(List.of("\uDBFF\uDFFF end", "\uDBFF\uDFFF\uDBFF\uDFFF end"),
+                readAllPages("\uDBFF\uDFFF"));
+    }
+
+    @Test
+    public void titlePagesContainEveryBookmarkOnce() {
+        // titles equal when ignoring case only differ by their row id
+        insertTitles("song", "Song", "b", "SONG", "song", "Songs", "song", "sOng", "a");
+
+        assertEquals(List.of("song", "Song", "SONG", "song", "song", "sOng", "Songs"),
+                readAllPages("so"));
+    }
+
+    @Test
+    public void newestPagesContainEveryBookmarkOnce() {
+        // bookmarks added at once share their added time, see BookmarkStore.addAll()
+        insert("first", 1000);
+        insert("second", 2000);
+        insert("third", 2000);
+        insert("fourth", 2000);
+        insert("fifth", 2000);
+        insert("sixth", 3000);
+        insert("seventh", 3000);
+
+        assertEquals(List.of("seventh", "sixth", "fifth", "fourth", "third", "second", "first"),
+                readAllPages(""));
+    }
+
+    @Test
+    public void shortPageHasNoNextPage() {
+        insertTitles("a", "b", "c", "d");
+
+        final InfoItemsPage<InfoItem> first = store.getPage("", null, PAGE_SIZE);
+        assertEquals(PAGE_SIZE, first.getItems().size());
+        final InfoItemsPage<InfoItem> last = store.getPage("", first.getNextPage(), PAGE_SIZE);
+        assertEquals(1, last.getItems().size());
+        assertNull(last.getNextPage());
+    }
+}
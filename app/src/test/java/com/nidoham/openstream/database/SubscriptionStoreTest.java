@@ -0,0 +1,192 @@
+package com.nidoham.openstream.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.schabi.newpipe.extractor.InfoItem;
+import org.schabi.newpipe.extractor.ListExtractor.InfoItemsPage;
+import org.schabi.newpipe.extractor.Page;
+import org.schabi.newpipe.extractor.localization.DateWrapper;
+import org.schabi.newpipe.extractor.stream.StreamInfoItem;
+import org.schabi.newpipe.extractor.stream.StreamType;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the keyset pagination of the feed stored by {@link SubscriptionStore}, in particular
+ * across streams sharing the same upload date, where an off-by-one would skip or repeat streams
+ * at page boundaries, and the reload of the pages loaded so far done after a feed update.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SubscriptionStoreTest {
+    private static final int PAGE_SIZE = 3;
+    private static final String CHANNEL_URL = "https://example.com/channel/";
+
+    private SubscriptionStore store;
+
+    @Before
+    public void setUp() {
+        AppDatabaseHelper.getInstance(RuntimeEnvironment.getApplication()).getWritableDatabase()
+                .delete(SubscriptionStore.TABLE_SUBSCRIPTIONS, null, null);
+        store = new SubscriptionStore(RuntimeEnvironment.getApplication());
+    }
+
+    private long subscribe(final String name) {
+        store.subscribe(0, CHANNEL_URL + name, name, null);
+        for (final Subscription subscription
+                : store.getSubscriptionsUpdatedBefore(Long.MAX_VALUE)) {
+            if (subscription.getName().equals(name)) {
+                return subscription.getId();
+            }
+        }
+        throw new AssertionError("Not subscribed to " + name);
+    }
+
+    /**
+     * @param uploadDate in seconds since the epoch, or 0 if unknown
+     */
+    private static StreamInfoItem stream(final String name, final long uploadDate) {
+        final StreamInfoItem stream = new StreamInfoItem(0, "https://example.com/watch?v=" + name,
+                name, StreamType.VIDEO_STREAM);
+        if (uploadDate > 0) {
+            stream.setUploadDate(new DateWrapper(OffsetDateTime.ofInstant(
+                    Instant.ofEpochSecond(uploadDate), ZoneOffset.UTC)));
+        }
+        return stream;
+    }
+
+    private static List<String> names(final List<? extends InfoItem> items) {
+        final List<String> names = new ArrayList<>(items.size());
+        for (final InfoItem item : items) {
+            names.add(item.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Saves streams which, when sorted newest first, are named s1 to s8. Streams with the same
+     * upload date are sorted by insertion, last inserted first.
+     */
+    private void saveFeed() {
+        store.saveFeeds(Map.of(subscribe("channel"), List.of(
+                stream("s8", 0),
+                stream("s7", 0),
+                stream("s6", 100),
+                stream("s5", 200),
+                stream("s4", 200),
+                stream("s3", 200),
+                stream("s2", 200),
+                stream("s1", 300))), 1);
+    }
+
+    private List<String> readAllPages() {
+        final List<String> names = new ArrayList<>();
+        Page page = null;
+        do {
+            final InfoItemsPage<StreamInfoItem> result = store.getFeedPage(page, PAGE_SIZE);
+            names.addAll(names(result.getItems()));
+            page = result.getNextPage();
+        } while (page != null);
+        return names;
+    }
+
+    @Test
+    public void feedPagesContainEveryStreamOnce() {
+        saveFeed();
+
+        assertEquals(List.of("s1", "s2", "s3", "s4", "s5", "s6", "s7", "s8"), readAllPages());
+    }
+
+    @Test
+    public void shortPageHasNoNextPage() {
+        saveFeed();
+
+        final InfoItemsPage<StreamInfoItem> first = store.getFeedPage(null, 5);
+        final InfoItemsPage<StreamInfoItem> last = store.getFeedPage(first.getNextPage(), 5);
+        assertEquals(List.of("s6", "s7", "s8"), names(last.getItems()));
+        assertNull(last.getNextPage());
+    }
+
+    @Test
+    public void pagesBeforeAreThePagesLoadedSoFar() {
+        saveFeed();
+        final InfoItemsPage<StreamInfoItem> first = store.getFeedPage(null, PAGE_SIZE);
+        // the last loaded stream, s3, shares its upload date with the first one not loaded, s4
+        assertEquals(List.of("s1", "s2", "s3"),
+                names(store.getFeedPagesBefore(first.getNextPage()).getItems()));
+
+        final InfoItemsPage<StreamInfoItem> second =
+                store.getFeedPage(first.getNextPage(), PAGE_SIZE);
+        final InfoItemsPage<StreamInfoItem> loaded =
+                store.getFeedPagesBefore(second.getNextPage());
+        assertEquals(List.of("s1", "s2", "s3", "s4", "s5", "s6"), names(loaded.getItems()));
+        assertSame(second.getNextPage(), loaded.getNextPage());
+
+        // and loading goes on right after them
+        assertEquals(List.of("s7", "s8"),
+                names(store.getFeedPage(loaded.getNextPage(), PAGE_SIZE).getItems()));
+    }
+
+    @Test
+    public void pagesBeforeIncludeNewerStreams() {
+        saveFeed();
+        final InfoItemsPage<StreamInfoItem> first = store.getFeedPage(null, PAGE_SIZE);
+
+        // as after a feed update while the first page is shown
+        store.saveFeeds(Map.of(subscribe("other channel"), List.of(
+                stream("new", 400), stream("tied", 200), stream("old", 50))), 2);
+
+        // s3 is the last stream loaded, "tied" was inserted after it with the same upload date
+        assertEquals(List.of("new", "s1", "tied", "s2", "s3"),
+                names(store.getFeedPagesBefore(first.getNextPage()).getItems()));
+    }
+
+    @Test
+    public void allPagesBeforeTheEnd() {
+        saveFeed();
+
+        assertEquals(readAllPages(), names(store.getFeedPagesBefore(null).getItems()));
+    }
+
+    @Test
+    public void savingReplacesTheStreamsOfTheSubscription() {
+        saveFeed();
+        final long other = subscribe("other channel");
+        store.saveFeeds(Map.of(other, List.of(stream("other", 250))), 2);
+
+        store.saveFeeds(Map.of(subscribe("channel"), List.of(stream("s9", 150))), 3);
+        assertEquals(List.of("other", "s9"), readAllPages());
+
+        // the subscription was removed while its feed was being fetched
+        store.unsubscribe(0, CHANNEL_URL + "other channel");
+        store.saveFeeds(Map.of(other, List.of(stream("removed", 500))), 4);
+        assertEquals(List.of("s9"), readAllPages());
+    }
+
+    @Test
+    public void subscriptionsUpdatedBefore() {
+        final long first = subscribe("first");
+        final long second = subscribe("second");
+        final long never = subscribe("never");
+        store.saveFeeds(Map.of(second, List.of()), 100);
+        store.saveFeeds(Map.of(first, List.of()), 200);
+
+        final List<Subscription> stale = store.getSubscriptionsUpdatedBefore(150);
+        assertEquals(2, stale.size());
+        assertEquals(never, stale.get(0).getId());
+        assertEquals(second, stale.get(1).getId());
+        assertTrue(store.getSubscriptionsUpdatedBefore(0).isEmpty());
+    }
+}
@@ -0,0 +1,167 @@
+package com.nidoham.openstream.feed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+
+import com.nidoham.openstream.database.Subscription;
+import com.nidoham.openstream.database.SubscriptionStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.schabi.newpipe.extractor.ServiceList;
+import org.schabi.newpipe.extractor.services.peertube.PeertubeInstance;
+import org.schabi.newpipe.util.ExtractorBootstrap;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Measures a full refresh of a large subscription feed. The channels are on a PeerTube instance
+ * served by a {@link MockWebServer}, which answers after a fixed latency, so that the time
+ * depends on how many channels are fetched at a time and on how fast batches are saved, and not
+ * on the network.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public class FeedUpdateEngineTest {
+    private static final int SUBSCRIPTIONS = 500;
+    private static final int STREAMS_PER_CHANNEL = 12;
+    // the round trip time to a nearby server
+    private static final long LATENCY_MILLIS = 10;
+    private static final String CHANNELS_PATH = "/api/v1/video-channels/";
+
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+    private MockWebServer server;
+    private String baseUrl;
+    private SubscriptionStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new ChannelDispatcher());
+        server.start();
+        final String url = server.url("/").toString();
+        baseUrl = url.substring(0, url.length() - 1);
+        ServiceList.PeerTube.setInstance(new PeertubeInstance(baseUrl, "Mock instance"));
+        ExtractorBootstrap.init(RuntimeEnvironment.getApplication());
+
+        store = new SubscriptionStore(RuntimeEnvironment.getApplication());
+        for (final Subscription subscription
+                : store.getSubscriptionsUpdatedBefore(Long.MAX_VALUE)) {
+            store.unsubscribe(subscription.getServiceId(), subscription.getUrl());
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test(timeout = 60_000)
+    public void fullRefresh() {
+        final int serviceId = ServiceList.PeerTube.getServiceId();
+        for (int i = 0; i < SUBSCRIPTIONS; ++i) {
+            store.subscribe(serviceId, baseUrl + "/video-channels/channel" + i,
+                    "Channel " + i, null);
+        }
+
+        final long start = System.nanoTime();
+        final List<FeedUpdateEngine.Progress> progress =
+                new FeedUpdateEngine(store).update(true).toList().blockingGet();
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        final FeedUpdateEngine.Progress last = progress.get(progress.size() - 1);
+        assertTrue(last.isComplete());
+        assertEquals(SUBSCRIPTIONS, last.getTotal());
+        assertEquals(0, last.getFailed());
+        assertTrue(store.getSubscriptionsUpdatedBefore(1).isEmpty());
+        assertEquals(SUBSCRIPTIONS * STREAMS_PER_CHANNEL,
+                store.getFeedPagesBefore(null).getItems().size());
+        assertEquals(SUBSCRIPTIONS * 2, server.getRequestCount());
+        // the channel and its videos tab are requested one after the other
+        assertTrue("Up to " + maxActiveRequests.get() + " requests at a time",
+                maxActiveRequests.get() <= FeedUpdateEngine.MAX_CONCURRENT_FETCHES);
+
+        // what the refresh would take if only the requests took time
+        final long networkMillis = SUBSCRIPTIONS * 2 * LATENCY_MILLIS
+                / FeedUpdateEngine.MAX_CONCURRENT_FETCHES;
+        System.out.println(String.format(Locale.ROOT,
+                "Refreshed %d subscriptions in %d ms (%d ms of network), %d progress updates",
+                SUBSCRIPTIONS, millis, networkMillis, progress.size()));
+    }
+
+    private final class ChannelDispatcher extends Dispatcher {
+        @NonNull
+        @Override
+        public MockResponse dispatch(@NonNull final RecordedRequest request)
+                throws InterruptedException {
+            final int active = activeRequests.incrementAndGet();
+            maxActiveRequests.accumulateAndGet(active, Math::max);
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+                final String path = request.getPath();
+                if (path == null || !path.startsWith(CHANNELS_PATH)) {
+                    return new MockResponse().setResponseCode(404);
+                }
+
+                final String channel = path.substring(CHANNELS_PATH.length()).split("[/?]")[0];
+                final String body = path.contains("/videos?")
+                        ? videosJson(channel) : channelJson(channel);
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(body);
+            } finally {
+                activeRequests.decrementAndGet();
+            }
+        }
+    }
+
+    private static String accountJson(final String channel) {
+        return "{\"name\":\"" + channel + "_account\",\"host\":\"localhost\","
+                + "\"displayName\":\"Account of " + channel + "\",\"avatars\":[]}";
+    }
+
+    private static String channelJson(final String channel) {
+        return "{\"id\":1,\"name\":\"" + channel + "\",\"host\":\"localhost\","
+                + "\"displayName\":\"" + channel + "\",\"description\":\"\","
+                + "\"followersCount\":100,\"avatars\":[],\"banners\":[],"
+                + "\"ownerAccount\":" + accountJson(channel) + "}";
+    }
+
+    private static String videosJson(final String channel) {
+        final StringBuilder json = new StringBuilder("{\"total\":" + STREAMS_PER_CHANNEL
+                + ",\"data\":[");
+        for (int i = 0; i < STREAMS_PER_CHANNEL; ++i) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"uuid\":\"").append(channel).append("-video").append(i)
+                    .append("\",\"name\":\"Video ").append(i).append(" of ").append(channel)
+                    .append("\",\"duration\":600,\"views\":1000,\"isLive\":false,")
+                    .append(String.format(Locale.ROOT,
+                            "\"publishedAt\":\"2024-01-%02dT12:00:00.000Z\",", i + 1))
+                    .append("\"thumbnailPath\":\"/static/thumbnails/").append(channel)
+                    .append(i).append(".jpg\",\"account\":").append(accountJson(channel))
+                    .append(",\"channel\":").append(channelJson(channel)).append('}');
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,122 @@
+package com.nidoham.openstream.memory;
+
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_COMPLETE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_MODERATE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.nidoham.openstream.memory.MemoryPressureCoordinator.Pressure;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MemoryPressureCoordinatorTest {
+
+    @Test
+    public void uiHiddenOnlyTrims() {
+        // going to the background must not drop e.g. the thumbnails the user comes back to
+        assertEquals(Pressure.MODERATE,
+                MemoryPressureCoordinator.toPressure(TRIM_MEMORY_UI_HIDDEN));
+    }
+
+    @Test
+    public void runningLevels() {
+        assertEquals(Pressure.MODERATE,
+                MemoryPressureCoordinator.toPressure(TRIM_MEMORY_RUNNING_MODERATE));
+        assertEquals(Pressure.HIGH,
+                MemoryPressureCoordinator.toPressure(TRIM_MEMORY_RUNNING_LOW));
+        assertEquals(Pressure.CRITICAL,
+                MemoryPressureCoordinator.toPressure(TRIM_MEMORY_RUNNING_CRITICAL));
+    }
+
+    @Test
+    public void backgroundLevels() {
+        assertEquals(Pressure.HIGH,
+                MemoryPressureCoordinator.toPressure(TRIM_MEMORY_BACKGROUND));
+        assertEquals(Pressure.CRITICAL,
+                MemoryPressureCoordinator.toPressure(TRIM_MEMORY_MODERATE));
+        assertEquals(Pressure.CRITICAL,
+                MemoryPressureCoordinator.toPressure(TRIM_MEMORY_COMPLETE));
+    }
+
+    @Test
+    public void onlyHiddenUiLevelsAreInBackground() {
+        assertFalse(MemoryPressureCoordinator.isInBackground(TRIM_MEMORY_RUNNING_MODERATE));
+        assertFalse(MemoryPressureCoordinator.isInBackground(TRIM_MEMORY_RUNNING_LOW));
+        assertFalse(MemoryPressureCoordinator.isInBackground(TRIM_MEMORY_RUNNING_CRITICAL));
+        assertTrue(MemoryPressureCoordinator.isInBackground(TRIM_MEMORY_UI_HIDDEN));
+        assertTrue(MemoryPressureCoordinator.isInBackground(TRIM_MEMORY_BACKGROUND));
+        assertTrue(MemoryPressureCoordinator.isInBackground(TRIM_MEMORY_MODERATE));
+        assertTrue(MemoryPressureCoordinator.isInBackground(TRIM_MEMORY_COMPLETE));
+    }
+
+    @Test
+    public void unknownLowLevelsAreIgnored() {
+        assertEquals(Pressure.NONE, MemoryPressureCoordinator.toPressure(0));
+        assertEquals(Pressure.NONE,
+                MemoryPressureCoordinator.toPressure(TRIM_MEMORY_RUNNING_MODERATE - 1));
+    }
+
+    @Test
+    public void trimRunsAllParticipants() {
+        final List<String> trimmed = new ArrayList<>();
+        final MemoryPressureCoordinator coordinator = new MemoryPressureCoordinator()
+                .register("first", "entries", (pressure, inBackground) -> {
+                    trimmed.add("first " + pressure);
+                    return 1;
+                })
+                .register("failing", "entries", (pressure, inBackground) -> {
+                    throw new IllegalStateException("failing on purpose");
+                })
+                .register("last", "bytes", (pressure, inBackground) -> {
+                    trimmed.add("last " + pressure);
+                    return 2;
+                });
+
+        coordinator.onTrimMemory(TRIM_MEMORY_UI_HIDDEN);
+        assertEquals(List.of("first MODERATE", "last MODERATE"), trimmed);
+
+        trimmed.clear();
+        coordinator.onLowMemory();
+        assertEquals(List.of("first CRITICAL", "last CRITICAL"), trimmed);
+    }
+
+    @Test
+    public void criticalPressureTellsForegroundFromBackground() {
+        final List<String> trimmed = new ArrayList<>();
+        final MemoryPressureCoordinator coordinator = new MemoryPressureCoordinator()
+                .register("cache", "entries", (pressure, inBackground) -> {
+                    trimmed.add(pressure + (inBackground ? " background" : " foreground"));
+                    return 0;
+                });
+
+        // both are graded CRITICAL, but a configuration change can follow the first one
+        coordinator.onTrimMemory(TRIM_MEMORY_RUNNING_CRITICAL);
+        coordinator.onTrimMemory(TRIM_MEMORY_MODERATE);
+        coordinator.onLowMemory();
+        assertEquals(List.of("CRITICAL foreground", "CRITICAL background",
+                "CRITICAL foreground"), trimmed);
+    }
+
+    @Test
+    public void noPressureRunsNothing() {
+        final List<Pressure> trimmed = new ArrayList<>();
+        final MemoryPressureCoordinator coordinator = new MemoryPressureCoordinator()
+                .register("cache", "entries", (pressure, inBackground) -> {
+                    trimmed.add(pressure);
+                    return 0;
+                });
+
+        coordinator.onTrimMemory(0);
+        coordinator.trim(Pressure.NONE, true);
+        assertTrue(trimmed.isEmpty());
+    }
+}
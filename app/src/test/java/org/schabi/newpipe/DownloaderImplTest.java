@@ -0,0 +1,168 @@
+package org.schabi.newpipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.schabi.newpipe.error.ReCaptchaActivity;
+import org.schabi.newpipe.extractor.exceptions.ReCaptchaException;
+import org.schabi.newpipe.util.CancellationScope;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Checks how {@link DownloaderImpl} parks requests while a reCAPTCHA challenge is pending, and
+ * how they resume once it is solved, abandoned or their extraction is cancelled.
+ */
+public class DownloaderImplTest {
+    private static final long TIMEOUT_SECONDS = 5;
+    private static final String SOLVED_COOKIES = "GOOGLE_ABUSE_EXEMPTION=ID=0123456789";
+
+    private final LinkedBlockingQueue<String> challenges = new LinkedBlockingQueue<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private MockWebServer server;
+    private DownloaderImpl downloader;
+    private String url;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        url = server.url("/watch").toString();
+        downloader = DownloaderImpl.init(null);
+        downloader.setOnReCaptchaChallengeListener(challenges::add);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        server.shutdown();
+    }
+
+    private Future<String> get() {
+        return executor.submit(() -> downloader.get(url).responseBody());
+    }
+
+    private void awaitChallenge() throws InterruptedException {
+        assertEquals(url, challenges.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void parkedRequestIsReplayedWithTheSolvedCookies() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setBody("video"));
+
+        final Future<String> request = get();
+        awaitChallenge();
+        assertTrue(downloader.hasPendingReCaptchaChallenges());
+        assertFalse(request.isDone());
+
+        downloader.setCookie(ReCaptchaActivity.RECAPTCHA_COOKIES_KEY, SOLVED_COOKIES);
+        assertEquals("video", request.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(downloader.hasPendingReCaptchaChallenges());
+
+        assertNull(server.takeRequest().getHeader("Cookie"));
+        assertEquals(SOLVED_COOKIES, server.takeRequest().getHeader("Cookie"));
+    }
+
+    @Test
+    public void requestsWaitForThePendingChallengeOfTheirHost() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setBody("first"));
+        server.enqueue(new MockResponse().setBody("second"));
+
+        final Future<String> first = get();
+        awaitChallenge();
+        final Future<String> second = get();
+
+        // the second request must not be fired (and answered with 429 too) in the meantime
+        assertNull(challenges.poll(500, TimeUnit.MILLISECONDS));
+        assertEquals(1, server.getRequestCount());
+        assertFalse(second.isDone());
+
+        downloader.setCookie(ReCaptchaActivity.RECAPTCHA_COOKIES_KEY, SOLVED_COOKIES);
+        // replayed requests can reach the server in any order
+        final String firstBody = first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        final String secondBody = second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertTrue(firstBody.equals("first") && secondBody.equals("second")
+                || firstBody.equals("second") && secondBody.equals("first"));
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void abandonedChallengeFailsParkedRequests() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429));
+
+        final Future<String> request = get();
+        awaitChallenge();
+        downloader.abandonReCaptchaChallenges();
+
+        assertCause(ReCaptchaException.class, request);
+        assertEquals(1, server.getRequestCount());
+        assertFalse(downloader.hasPendingReCaptchaChallenges());
+    }
+
+    @Test
+    public void rejectedSolutionFailsOnSecond429() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setResponseCode(429));
+
+        final Future<String> request = get();
+        awaitChallenge();
+        downloader.setCookie(ReCaptchaActivity.RECAPTCHA_COOKIES_KEY, SOLVED_COOKIES);
+
+        // replayed only once, so that a rejected solution does not loop
+        assertCause(ReCaptchaException.class, request);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void cancellingTheExtractionReleasesTheParkedRequest() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429));
+
+        final AtomicReference<CancellationScope> scope = new AtomicReference<>();
+        final Future<String> request = executor.submit(() -> {
+            scope.set(CancellationScope.open());
+            try {
+                return downloader.get(url).responseBody();
+            } finally {
+                scope.get().close();
+            }
+        });
+        awaitChallenge();
+
+        final long start = System.nanoTime();
+        scope.get().cancel();
+        assertCause(InterruptedIOException.class, request);
+        // released right away, not after the challenge times out
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 2);
+        // the challenge is still pending for the other requests
+        assertTrue(downloader.hasPendingReCaptchaChallenges());
+    }
+
+    private static void assertCause(final Class<? extends Throwable> expected,
+                                    final Future<?> request) throws Exception {
+        try {
+            request.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (final ExecutionException e) {
+            assertTrue("Unexpected " + e.getCause(), expected.isInstance(e.getCause()));
+            return;
+        }
+        throw new AssertionError("Expected " + expected.getSimpleName());
+    }
+}
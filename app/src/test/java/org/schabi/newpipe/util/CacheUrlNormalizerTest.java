@@ -0,0 +1,146 @@
+package org.schabi.newpipe.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.schabi.newpipe.extractor.ServiceList;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Checks that {@link CacheUrlNormalizer} maps the different links to the same content to one
+ * {@link InfoCache} key, and measures how many more cache hits that gives on the lookups of a
+ * browsing session ({@code cache_session.txt}).
+ */
+public class CacheUrlNormalizerTest {
+    private static final int YOUTUBE = ServiceList.YouTube.getServiceId();
+    private static final String CANONICAL_STREAM = "https://www.youtube.com/watch?v=video000001";
+    // the different contents in cache_session.txt: 18 streams, 2 channels and 1 playlist
+    private static final int SESSION_CONTENTS = 21;
+
+    private static String normalizeStream(final String url) {
+        return CacheUrlNormalizer.normalize(YOUTUBE, url, InfoCache.Type.STREAM);
+    }
+
+    @Test
+    public void streamLinksShareOneKey() {
+        assertEquals(CANONICAL_STREAM, normalizeStream(CANONICAL_STREAM));
+        assertEquals(CANONICAL_STREAM, normalizeStream("https://youtu.be/video000001"));
+        assertEquals(CANONICAL_STREAM,
+                normalizeStream("https://youtu.be/video000001?si=share0000000001"));
+        assertEquals(CANONICAL_STREAM,
+                normalizeStream("https://m.youtube.com/watch?v=video000001"));
+        assertEquals(CANONICAL_STREAM,
+                normalizeStream("https://www.youtube.com/watch?v=video000001&t=30"));
+        assertEquals(CANONICAL_STREAM,
+                normalizeStream("https://www.youtube.com/shorts/video000001"));
+    }
+
+    @Test
+    public void differentStreamsKeepTheirKeys() {
+        assertNotEquals(normalizeStream("https://youtu.be/video000001"),
+                normalizeStream("https://youtu.be/video000002"));
+    }
+
+    @Test
+    public void channelLinksShareOneKey() {
+        assertEquals(
+                CacheUrlNormalizer.normalize(YOUTUBE,
+                        "https://www.youtube.com/channel/UCchannel000000000000001",
+                        InfoCache.Type.CHANNEL),
+                CacheUrlNormalizer.normalize(YOUTUBE,
+                        "https://m.youtube.com/channel/UCchannel000000000000001",
+                        InfoCache.Type.CHANNEL));
+    }
+
+    @Test
+    public void unsupportedUrlsAreKept() {
+        final String url = "https://example.com/watch?v=video000001";
+        assertEquals(url, normalizeStream(url));
+    }
+
+    @Test
+    public void typesWithoutFactoryAreKept() {
+        // kiosk urls are built by the extractor, so they are never normalized
+        final String url = "https://youtu.be/video000001";
+        assertEquals(CANONICAL_STREAM, normalizeStream(url));
+        assertEquals(url, CacheUrlNormalizer.normalize(YOUTUBE, url, InfoCache.Type.KIOSK));
+    }
+
+    @Test
+    public void resultsAreMemoized() {
+        final String url = "https://youtu.be/memoized001";
+        // a url parsed again would be built again
+        assertSame(normalizeStream(url), normalizeStream(url));
+    }
+
+    @Test
+    public void leastRecentlyUsedResultsAreEvicted() {
+        final String url = "https://youtu.be/evicted0001";
+        final String first = normalizeStream(url);
+
+        // used again halfway through, so still memoized after as many other urls as fit
+        fillMemo("a", CacheUrlNormalizer.MAX_MEMOIZED_URLS - 1);
+        assertSame(first, normalizeStream(url));
+        fillMemo("b", CacheUrlNormalizer.MAX_MEMOIZED_URLS - 1);
+        assertSame(first, normalizeStream(url));
+
+        fillMemo("c", CacheUrlNormalizer.MAX_MEMOIZED_URLS);
+        final String parsedAgain = normalizeStream(url);
+        assertNotSame(first, parsedAgain);
+        assertEquals(first, parsedAgain);
+    }
+
+    private static void fillMemo(final String prefix, final int count) {
+        for (int i = 0; i < count; ++i) {
+            normalizeStream(String.format(Locale.ROOT, "https://youtu.be/%s%010d", prefix, i));
+        }
+    }
+
+    @Test
+    public void sessionHitRate() throws IOException {
+        int lookups = 0;
+        final Set<String> rawKeys = new HashSet<>();
+        int rawHits = 0;
+        final Set<String> normalizedKeys = new HashSet<>();
+        int normalizedHits = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("cache_session.txt"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                final String[] lookup = line.split(" ", 2);
+                final InfoCache.Type type = InfoCache.Type.valueOf(lookup[0]);
+                ++lookups;
+                // the session is shorter than the cache, so nothing would be evicted
+                if (!rawKeys.add(type + " " + lookup[1])) {
+                    ++rawHits;
+                }
+                if (!normalizedKeys.add(type + " "
+                        + CacheUrlNormalizer.normalize(YOUTUBE, lookup[1], type))) {
+                    ++normalizedHits;
+                }
+            }
+        }
+
+        System.out.println(String.format(Locale.ROOT,
+                "%d lookups: %.0f%% cache hits with normalized urls, %.0f%% without",
+                lookups, 100.0 * normalizedHits / lookups, 100.0 * rawHits / lookups));
+        assertEquals(SESSION_CONTENTS, normalizedKeys.size());
+        assertTrue(normalizedHits > rawHits);
+    }
+}
@@ -0,0 +1,119 @@
+package org.schabi.newpipe.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.schabi.newpipe.DownloaderImpl;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+/**
+ * Checks that disposing an extraction cancels the HTTP calls {@link DownloaderImpl} makes for it.
+ */
+public class CancellationScopeTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final List<Call> cancelledCalls = new CopyOnWriteArrayList<>();
+    private MockWebServer server;
+    private DownloaderImpl downloader;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        downloader = DownloaderImpl.init(new OkHttpClient.Builder()
+                .eventListener(new EventListener() {
+                    @Override
+                    public void canceled(final Call call) {
+                        cancelledCalls.add(call);
+                    }
+                }));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void disposingCancelsCallInFlightAndLaterCalls() throws Exception {
+        // never answered, so that only a cancellation can end the request
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        final String url = server.url("/stream").toString();
+
+        final AtomicReference<CancellationScope> scope = new AtomicReference<>();
+        final AtomicReference<Exception> inFlightError = new AtomicReference<>();
+        final AtomicReference<Exception> laterError = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final Disposable disposable = ExtractorHelper.cancellable(() -> {
+            scope.set(CancellationScope.current());
+            try {
+                return downloader.get(url).responseBody();
+            } catch (final IOException e) {
+                inFlightError.set(e);
+                try {
+                    // e.g. the extractor trying the next client after the first one failed
+                    downloader.get(url);
+                } catch (final IOException later) {
+                    laterError.set(later);
+                }
+                throw e;
+            } finally {
+                done.countDown();
+            }
+        }).subscribeOn(Schedulers.io()).subscribe(body -> { }, throwable -> { });
+
+        // the request reached the server, so the call is in flight
+        assertNotNull(server.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        disposable.dispose();
+
+        assertTrue("the call was not cancelled", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertNotNull(scope.get());
+        assertTrue(scope.get().isCancelled());
+        assertNotNull(inFlightError.get());
+        assertNotNull("a call made after the cancellation was executed", laterError.get());
+        assertEquals(2, cancelledCalls.size());
+        assertTrue(cancelledCalls.stream().allMatch(Call::isCanceled));
+        // the later call was cancelled before sending anything
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void callRegisteredAfterCancelIsCancelledRightAway() {
+        final OkHttpClient client = new OkHttpClient();
+        final Call call = client.newCall(new okhttp3.Request.Builder()
+                .url(server.url("/stream"))
+                .build());
+
+        final CancellationScope scope = CancellationScope.open();
+        try {
+            scope.cancel();
+            scope.register(call);
+        } finally {
+            scope.close();
+        }
+
+        assertTrue(call.isCanceled());
+        assertNull(CancellationScope.current());
+        assertEquals(0, server.getRequestCount());
+    }
+}
@@ -0,0 +1,108 @@
+package org.schabi.newpipe.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.schabi.newpipe.DownloaderImpl;
+import org.schabi.newpipe.extractor.NewPipe;
+import org.schabi.newpipe.extractor.ServiceList;
+import org.schabi.newpipe.extractor.exceptions.ExtractionException;
+import org.schabi.newpipe.extractor.kiosk.KioskInfo;
+import org.schabi.newpipe.extractor.services.peertube.PeertubeInstance;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Checks that extractions wait for {@link ExtractorBootstrap} during a cold start, and fail with
+ * the reason if it did not succeed. A PeerTube instance served by a {@link MockWebServer} stands
+ * in for the real services.
+ */
+public class ExtractorBootstrapTest {
+    private static final long TIMEOUT_SECONDS = 5;
+    // roughly what creating the downloader and reading the preferences takes on a slow device
+    private static final long INIT_MILLIS = 300;
+
+    private MockWebServer server;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        ExtractorBootstrap.reset();
+        server = new MockWebServer();
+        server.start();
+        final String url = server.url("/").toString();
+        baseUrl = url.substring(0, url.length() - 1);
+        ServiceList.PeerTube.setInstance(new PeertubeInstance(baseUrl, "Mock instance"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        ExtractorBootstrap.reset();
+    }
+
+    @Test
+    public void firstKioskInfoWaitsForInitialization() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"total\":0,\"data\":[]}"));
+
+        // as on a cold start: the first tab asks for its kiosk while startup is still running
+        final long start = System.nanoTime();
+        final TestObserver<KioskInfo> observer = ExtractorHelper.getKioskInfo(
+                        ServiceList.PeerTube.getServiceId(), baseUrl + "/videos/trending", true)
+                .subscribeOn(Schedulers.io())
+                .test();
+        final Thread startup = new Thread(() -> ExtractorBootstrap.init(() -> {
+            sleep(INIT_MILLIS);
+            NewPipe.init(DownloaderImpl.init(new OkHttpClient.Builder()));
+        }));
+        startup.start();
+
+        assertTrue(observer.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        final long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        observer.assertNoErrors().assertValueCount(1);
+        startup.join();
+
+        assertEquals(1, server.getRequestCount());
+        // the initialization plus a local request, not the time awaitReady() would give up after
+        assertTrue("First kiosk loaded after " + latencyMillis + "ms",
+                latencyMillis >= INIT_MILLIS && latencyMillis < INIT_MILLIS + 2000);
+    }
+
+    @Test
+    public void failedInitializationIsRethrown() {
+        final IllegalStateException failure = new IllegalStateException("failing on purpose");
+        assertThrows(IllegalStateException.class, () -> ExtractorBootstrap.init(() -> {
+            throw failure;
+        }));
+
+        final ExtractionException e = assertThrows(ExtractionException.class,
+                ExtractorBootstrap::awaitReady);
+        assertSame(failure, e.getCause());
+    }
+
+    @Test
+    public void missingInitializationTimesOut() {
+        assertThrows(ExtractionException.class,
+                () -> ExtractorBootstrap.awaitReady(50, TimeUnit.MILLISECONDS));
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
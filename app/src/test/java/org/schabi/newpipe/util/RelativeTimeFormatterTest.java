@@ -0,0 +1,115 @@
+package org.schabi.newpipe.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.ocpsoft.prettytime.PrettyTime;
+import org.ocpsoft.prettytime.TimeUnit;
+import org.ocpsoft.prettytime.units.Decade;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Checks that {@link RelativeTimeFormatter} produces exactly the same strings as
+ * {@link PrettyTime#formatUnrounded(Date)}, which it replaces.
+ */
+public class RelativeTimeFormatterTest {
+    // an arbitrary fixed point in time (2024-01-01T00:00:00Z), so that results are reproducible
+    private static final long REFERENCE = 1_704_067_200_000L;
+
+    private static PrettyTime createPrettyTime(final Locale locale) {
+        final PrettyTime prettyTime = new PrettyTime(locale);
+        // as in Localization.installPrettyTime()
+        prettyTime.removeUnit(Decade.class);
+        prettyTime.setReference(new Date(REFERENCE));
+        return prettyTime;
+    }
+
+    /**
+     * @return offsets around every unit size and every unit boundary, in both directions
+     */
+    private static List<Long> boundaryOffsets(final PrettyTime prettyTime) {
+        final List<TimeUnit> units = prettyTime.getUnits();
+        final List<Long> offsets = new ArrayList<>();
+        for (int i = 0; i < units.size(); ++i) {
+            final long millisPerUnit = Math.abs(units.get(i).getMillisPerUnit());
+            long maxQuantity = Math.abs(units.get(i).getMaxQuantity());
+            if (maxQuantity == 0 && i < units.size() - 1) {
+                maxQuantity = units.get(i + 1).getMillisPerUnit() / millisPerUnit;
+            }
+
+            for (final long base : new long[]{millisPerUnit, millisPerUnit * maxQuantity,
+                    millisPerUnit * 2, millisPerUnit * 3 + millisPerUnit / 2}) {
+                if (base <= 0 || base > 1_000L * 365 * 24 * 3600 * 1000) {
+                    continue; // beyond any date a service returns
+                }
+                for (final long delta : new long[]{-1, 0, 1}) {
+                    offsets.add(base + delta);
+                    offsets.add(-(base + delta));
+                }
+            }
+        }
+        return offsets;
+    }
+
+    private static void assertSameAsPrettyTime(final Locale locale) {
+        final PrettyTime prettyTime = createPrettyTime(locale);
+        final RelativeTimeFormatter formatter =
+                new RelativeTimeFormatter(createPrettyTime(locale));
+
+        for (final long offset : boundaryOffsets(prettyTime)) {
+            final long then = REFERENCE + offset;
+            assertEquals("offset " + offset + " in " + locale,
+                    prettyTime.formatUnrounded(new Date(then)),
+                    formatter.format(then, REFERENCE));
+        }
+    }
+
+    @Test
+    public void unitBoundariesMatchPrettyTime() {
+        assertSameAsPrettyTime(Locale.ENGLISH);
+    }
+
+    @Test
+    public void unitBoundariesMatchPrettyTimeInOtherLocales() {
+        assertSameAsPrettyTime(Locale.GERMAN);
+        assertSameAsPrettyTime(new Locale("ru"));
+        assertSameAsPrettyTime(Locale.JAPANESE);
+    }
+
+    @Test
+    public void justNowMatchesPrettyTime() {
+        final PrettyTime prettyTime = createPrettyTime(Locale.ENGLISH);
+        final RelativeTimeFormatter formatter =
+                new RelativeTimeFormatter(createPrettyTime(Locale.ENGLISH));
+
+        for (final long offset : new long[]{0, 1, -1, 999, -999, 30_000, -30_000,
+                59_999, -59_999}) {
+            final long then = REFERENCE + offset;
+            assertEquals("offset " + offset,
+                    prettyTime.formatUnrounded(new Date(then)),
+                    formatter.format(then, REFERENCE));
+        }
+    }
+
+    @Test
+    public void cachedStringsStayCorrect() {
+        final PrettyTime prettyTime = createPrettyTime(Locale.ENGLISH);
+        final RelativeTimeFormatter formatter =
+                new RelativeTimeFormatter(createPrettyTime(Locale.ENGLISH));
+
+        // the same (unit, quantity) pairs, reached from different offsets, hit the cache
+        for (int round = 0; round < 2; ++round) {
+            for (long minutes = 1; minutes < 24 * 60; minutes += 7) {
+                for (final long sign : new long[]{-1, 1}) {
+                    final long then = REFERENCE + sign * (minutes * 60_000 + round * 1_000);
+                    assertEquals(prettyTime.formatUnrounded(new Date(then)),
+                            formatter.format(then, REFERENCE));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.nidoham.openstream.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.util.List;
+
+/**
+ * The user journeys shared by the benchmarks and the baseline profile generator.
+ */
+final class AppScenarios {
+    static final String PACKAGE_NAME = "com.nidoham.openstream";
+
+    // SplashActivity waits 3 seconds before opening MainActivity
+    private static final long MAIN_ACTIVITY_TIMEOUT_MILLIS = 10_000;
+    private static final long UI_TIMEOUT_MILLIS = 5_000;
+
+    private AppScenarios() {
+        // no instance
+    }
+
+    /**
+     * Starts the app from the launcher and waits until the tabs of MainActivity are shown.
+     */
+    static void startApp(@NonNull final MacrobenchmarkScope scope) {
+        scope.startActivityAndWait();
+        scope.getDevice().wait(Until.hasObject(By.res(PACKAGE_NAME, "tabs")),
+                MAIN_ACTIVITY_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Scrolls through the list of every tab, and then opens the search.
+     */
+    static void browseTabs(@NonNull final MacrobenchmarkScope scope) {
+        final UiDevice device = scope.getDevice();
+        final UiObject2 tabLayout = device.findObject(By.res(PACKAGE_NAME, "tabs"));
+        if (tabLayout == null) {
+            return;
+        }
+
+        // the tabs only have icons, they are the children of the indicator strip
+        final List<UiObject2> tabs = tabLayout.getChildren().get(0).getChildren();
+        for (final UiObject2 tab : tabs) {
+            tab.click();
+            device.waitForIdle();
+            scrollList(device);
+        }
+
+        final UiObject2 search = device.findObject(By.res(PACKAGE_NAME, "action_search"));
+        if (search != null) {
+            search.click();
+            device.wait(Until.hasObject(By.res(PACKAGE_NAME, "et_search")), UI_TIMEOUT_MILLIS);
+            device.pressBack();
+        }
+    }
+
+    private static void scrollList(@NonNull final UiDevice device) {
+        final UiObject2 list = device.wait(Until.findObject(
+                By.res(PACKAGE_NAME, "list_content")), UI_TIMEOUT_MILLIS);
+        if (list == null || !list.isScrollable()) {
+            return;
+        }
+
+        // keep away from the edges, so that flings do not open the drawer or the notifications
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        list.fling(Direction.DOWN);
+        device.waitForIdle();
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+}
@@ -0,0 +1,42 @@
+package com.nidoham.openstream.benchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Generates the baseline profile of the app, from the code run during the cold startup and
+ * while browsing the tabs. Run it with {@code ./gradlew :app:generateBaselineProfile} on a
+ * device with API 33+ (or a rooted one with API 28+).
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+    @Rule
+    public final BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(AppScenarios.PACKAGE_NAME,
+                /* maxIterations */ 15,
+                /* stableIterations */ 3,
+                /* outputFilePrefix */ null,
+                // startup is also what the classes of the primary dex are chosen for
+                /* includeInStartupProfile */ true,
+                /* strictStability */ false,
+                // the profile is made of the methods actually run, libraries included, and
+                // not of whole packages
+                /* filterPredicate */ rule -> true,
+                scope -> {
+                    AppScenarios.startApp(scope);
+                    AppScenarios.browseTabs(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,55 @@
+package com.nidoham.openstream.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Measures the cold startup of the app, without any AOT compilation and with the baseline
+ * profile, so that the gain of the profile can be seen and regressions of either are noticed.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public final MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void startupWithoutCompilation() {
+        startup(new CompilationMode.None());
+    }
+
+    @Test
+    public void startupWithBaselineProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void startup(@NonNull final CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(AppScenarios.PACKAGE_NAME,
+                List.of(new StartupTimingMetric()), compilationMode, StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    AppScenarios.startApp(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}